@@ -11,6 +11,7 @@ repositories {
 
 dependencies {
     compileOnly(files("libs/HytaleServer.jar"))
+    testImplementation(files("libs/HytaleServer.jar"))
     testImplementation(platform("org.junit:junit-bom:5.10.0"))
     testImplementation("org.junit.jupiter:junit-jupiter")
 }
@@ -26,5 +27,22 @@ java {
 }
 
 tasks.test {
-    useJUnitPlatform()
+    useJUnitPlatform {
+        excludeTags("benchmark")
+    }
+}
+
+// Timing-sensitive tests, run on demand: ./gradlew benchmark
+tasks.register<Test>("benchmark") {
+    description = "Runs the HUD render pool scaling benchmark."
+    group = "verification"
+    testClassesDirs = sourceSets["test"].output.classesDirs
+    classpath = sourceSets["test"].runtimeClasspath
+    useJUnitPlatform {
+        includeTags("benchmark")
+    }
+    findProperty("physicalCores")?.let { systemProperty("benchmark.physicalCores", it) }
+    testLogging {
+        showStandardStreams = true
+    }
 }
\ No newline at end of file
@@ -0,0 +1,64 @@
+package com.nextlvlhash.command;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.protocol.GameMode;
+import com.hypixel.hytale.server.core.Message;
+import com.hypixel.hytale.server.core.command.system.basecommands.AbstractPlayerCommand;
+import com.hypixel.hytale.server.core.command.system.CommandContext;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudInvalidationBus;
+import com.nextlvlhash.hud.HudRenderPool;
+import com.nextlvlhash.hud.HudSession;
+import com.nextlvlhash.hud.HudWatchdog;
+import com.nextlvlhash.hud.MinimapHud;
+import com.nextlvlhash.storage.MinimapTileCache;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * Command to show HUD load: the watchdog level per world, what invalidated HUDs and the caller's session metrics.
+ */
+public class HudStatsCommand extends AbstractPlayerCommand {
+
+    public HudStatsCommand() {
+        super("hudstats", "Show HUD performance stats");
+        this.setPermissionGroup(GameMode.Creative);
+    }
+
+    @SuppressWarnings("null")
+    @Override
+    protected void execute(@Nonnull CommandContext ctx,
+                           @Nonnull Store<EntityStore> store,
+                           @Nonnull Ref<EntityStore> ref,
+                           @Nonnull PlayerRef playerRef,
+                           @Nonnull World world) {
+        ctx.sendMessage(Message.raw("§6=== HUD Stats ==="));
+        ctx.sendMessage(Message.raw("§eSessions: §f" + HudSession.all().size()));
+        ctx.sendMessage(Message.raw("§eRender " + HudRenderPool.describe()));
+        ctx.sendMessage(Message.raw("§eInvalidations: §f" + HudInvalidationBus.describeTotals()));
+        ctx.sendMessage(Message.raw("§eMinimap: §fsuppressed=" + MinimapHud.getTotalSuppressedChangeCount()
+                + " prefetched=" + MinimapHud.getTotalPrefetchedChunkCount()));
+        MinimapTileCache tileCache = MinimapTileCache.forWorld(world);
+        if (tileCache != null) {
+            ctx.sendMessage(Message.raw("§eTile cache: §finvalidated=" + tileCache.getInvalidatedChunkCount()
+                    + " chunks in " + world.getName()));
+        }
+
+        List<String> worlds = HudWatchdog.describe();
+        if (worlds.isEmpty()) {
+            ctx.sendMessage(Message.raw("§7No world measurements yet."));
+        }
+        for (String line : worlds) {
+            ctx.sendMessage(Message.raw("§e" + line));
+        }
+
+        HudSession session = HudSession.get(playerRef.getUuid());
+        if (session != null) {
+            ctx.sendMessage(Message.raw("§eYou: §f" + session.describe()));
+        }
+    }
+}
@@ -14,22 +14,28 @@ import com.hypixel.hytale.server.core.modules.entity.component.TransformComponen
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudMailbox;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.page.WaypointListPage;
 import com.nextlvlhash.storage.WaypointStorage;
-import com.nextlvlhash.system.MapIntegrationSystem;
 import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointBulkAction;
 import com.nextlvlhash.waypoint.WaypointCategory;
 import com.nextlvlhash.waypoint.WaypointConfig;
+import com.nextlvlhash.waypoint.WaypointDistanceView;
 import com.nextlvlhash.waypoint.WaypointEffects;
+import com.nextlvlhash.waypoint.WaypointQuery;
 
 import javax.annotation.Nonnull;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Command collection for managing waypoints.
  */
 public class WaypointCommand extends AbstractCommandCollection {
+    private static final int SUGGESTIONS = 3; // Names offered when a lookup misses
 
     public WaypointCommand(@Nonnull WaypointStorage storage) {
         super("waypoint", "Manage waypoints");
@@ -40,6 +46,7 @@ public class WaypointCommand extends AbstractCommandCollection {
         addSubCommand(new RemoveCommand(storage));
         addSubCommand(new ListCommand(storage));
         addSubCommand(new ToggleCommand(storage));
+        addSubCommand(new BulkCommand(storage));
         addSubCommand(new MenuCommand(storage));
     }
 
@@ -70,6 +77,35 @@ public class WaypointCommand extends AbstractCommandCollection {
         return trimmed.trim();
     }
 
+    /**
+     * Usage line for a subcommand taking a waypoint name, with the first names in alphabetical order.
+     */
+    @Nonnull
+    private static String usageMessage(@Nonnull WaypointConfig config, @Nonnull String subCommand) {
+        String usage = "§cUsage: /waypoint " + subCommand + " <name>";
+        List<String> names = config.getNameIndex().complete("", SUGGESTIONS);
+        return names.isEmpty() ? usage : usage + " §7(e.g. " + String.join(", ", names) + ")";
+    }
+
+    /**
+     * Not-found message, with the closest names from the player's index (or a note that the name
+     * belongs to a global waypoint).
+     */
+    @SuppressWarnings("null")
+    @Nonnull
+    private static String notFoundMessage(@Nonnull WaypointStorage storage, @Nonnull WaypointConfig config,
+                                          @Nonnull String name) {
+        if (storage.getGlobalLayer().getNameIndex().findFirst(name) != null) {
+            return "§c'" + name + "' is a global waypoint and can't be changed with this command.";
+        }
+        List<Waypoint> closest = config.getNameIndex().search(name, SUGGESTIONS);
+        if (closest.isEmpty()) {
+            return "§cWaypoint '" + name + "' not found.";
+        }
+        return "§cWaypoint '" + name + "' not found. Did you mean: §f"
+            + closest.stream().map(Waypoint::getName).collect(Collectors.joining("§c, §f")) + "§c?";
+    }
+
     /**
      * Add waypoint at current location.
      */
@@ -120,11 +156,10 @@ public class WaypointCommand extends AbstractCommandCollection {
                 if (success) {
                     ctx.sendMessage(Message.raw("§aWaypoint '" + waypointName + "' added at " + x + ", " + y + ", " + z));
                     Vector3d effectPos = new Vector3d(x + 0.5, y + 1.5, z + 0.5);
-                    world.execute(() -> {
-                        WaypointEffects.spawn(effectPos, ref, ref.getStore());
-                        // Add to native map
-                        MapIntegrationSystem.addWaypointToMap(player, waypoint);
-                    });
+                    // Runs on the world thread with the next HUD update
+                    HudSession.post(uuid, () -> WaypointEffects.spawn(effectPos, ref, ref.getStore()));
+                    // Add to native map (one sync for several changes in a row)
+                    HudSession.post(uuid, HudMailbox.SYNC_MAP_MARKERS);
                 } else {
                     ctx.sendMessage(Message.raw("§cCannot add waypoint. Max limit reached."));
                 }
@@ -149,7 +184,6 @@ public class WaypointCommand extends AbstractCommandCollection {
                                @Nonnull Ref<EntityStore> ref,
                                @Nonnull PlayerRef playerRef,
                                @Nonnull World world) {
-            Player player = store.getComponent(ref, Player.getComponentType());
             UUIDComponent uuidComp = store.getComponent(ref, UUIDComponent.getComponentType());
             if (uuidComp == null) {
                 ctx.sendMessage(Message.raw("§cError: Could not get UUID."));
@@ -160,19 +194,17 @@ public class WaypointCommand extends AbstractCommandCollection {
 
             String name = extractName(ctx, "remove");
             if (name.isEmpty()) {
-                ctx.sendMessage(Message.raw("§cUsage: /waypoint remove <name>"));
+                ctx.sendMessage(Message.raw(usageMessage(storage.getWaypointConfig(uuid), "remove")));
                 return;
             }
 
             WaypointConfig config = storage.getWaypointConfig(uuid);
 
-            Waypoint toRemove = config.getWaypoints().stream()
-                .filter(wp -> wp.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+            // Case-insensitive lookup through the name index
+            Waypoint toRemove = config.getNameIndex().findFirst(name);
 
             if (toRemove == null) {
-                ctx.sendMessage(Message.raw("§cWaypoint '" + name + "' not found."));
+                ctx.sendMessage(Message.raw(notFoundMessage(storage, config, name)));
                 return;
             }
 
@@ -180,10 +212,8 @@ public class WaypointCommand extends AbstractCommandCollection {
             storage.removeWaypoint(uuid, waypointId).thenAccept(success -> {
                 if (success) {
                     ctx.sendMessage(Message.raw("§aWaypoint '" + name + "' removed."));
-                    // Remove from native map
-                    if (player != null) {
-                        world.execute(() -> MapIntegrationSystem.removeWaypointFromMap(player, waypointId));
-                    }
+                    // Remove from native map (one sync for several changes in a row)
+                    HudSession.post(uuid, HudMailbox.SYNC_MAP_MARKERS);
                 } else {
                     ctx.sendMessage(Message.raw("§cFailed to remove waypoint."));
                 }
@@ -192,13 +222,13 @@ public class WaypointCommand extends AbstractCommandCollection {
     }
 
     /**
-     * List all waypoints.
+     * List waypoints matching optional filters, one page per chat message.
      */
     private static class ListCommand extends AbstractPlayerCommand {
         private final WaypointStorage storage;
 
         ListCommand(WaypointStorage storage) {
-            super("list", "List all waypoints");
+            super("list", "List waypoints: " + WaypointQuery.SYNTAX);
             this.storage = storage;
         }
 
@@ -217,21 +247,52 @@ public class WaypointCommand extends AbstractCommandCollection {
 
             UUID uuid = uuidComp.getUuid();
             WaypointConfig config = storage.getWaypointConfig(uuid);
-            List<Waypoint> waypoints = config.getWaypoints();
 
-            if (waypoints.isEmpty()) {
+            if (config.getWaypoints().isEmpty()) {
                 ctx.sendMessage(Message.raw("§eYou have no waypoints."));
                 return;
             }
 
-            ctx.sendMessage(Message.raw("§6=== Your Waypoints ==="));
-            for (Waypoint wp : waypoints) {
-                String visibility = wp.isVisible() ? "§a✓" : "§c✗";
-                String line = String.format("%s §f%s §7[%s] §8(%d, %d, %d)",
-                    visibility, wp.getName(), wp.getCategory().getDisplayName(),
-                    wp.getX(), wp.getY(), wp.getZ());
-                ctx.sendMessage(Message.raw(line));
+            WaypointQuery query;
+            try {
+                query = WaypointQuery.parse(extractName(ctx, "list"));
+            } catch (IllegalArgumentException e) {
+                ctx.sendMessage(Message.raw("§c" + e.getMessage() + ". Usage: /waypoint list " + WaypointQuery.SYNTAX));
+                return;
+            }
+
+            // Same nearest-first ranking as the HUD compass, moved to where the player stands now
+            TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
+            boolean hasPosition = transform != null;
+            int x = hasPosition ? (int) Math.floor(transform.getPosition().getX()) : 0;
+            int z = hasPosition ? (int) Math.floor(transform.getPosition().getZ()) : 0;
+            WaypointDistanceView distances = HudSession.distanceView(uuid);
+            WaypointDistanceView.Ranking ranking = distances != null && hasPosition
+                ? distances.update(config, storage.getGlobalLayer(), x, z) : null;
+
+            WaypointQuery.Result result = query.run(config, ranking, hasPosition, x, z);
+            if (result.getTotal() == 0) {
+                ctx.sendMessage(Message.raw("§eNo waypoints match."));
+                return;
             }
+
+            // One message per page instead of one per waypoint
+            StringBuilder text = new StringBuilder("§6=== Your Waypoints (" + result.getTotal() + ") - page "
+                + result.getPage() + "/" + result.getPages() + " ===");
+            for (Waypoint wp : result.getRows()) {
+                text.append('\n')
+                    .append(wp.isVisible() ? "§a✓" : "§c✗")
+                    .append(" §f").append(wp.getName())
+                    .append(" §7[").append(wp.getCategory().getDisplayName()).append("]")
+                    .append(" §8(").append(wp.getX()).append(", ").append(wp.getY()).append(", ").append(wp.getZ()).append(")");
+                if (hasPosition) {
+                    text.append(" §e").append(Math.round(wp.distance2DTo(x, z))).append("m");
+                }
+            }
+            if (result.getPage() < result.getPages()) {
+                text.append("\n§7Next: /waypoint list ").append(query.toArgs(result.getPage() + 1));
+            }
+            ctx.sendMessage(Message.raw(text.toString()));
         }
     }
 
@@ -253,7 +314,6 @@ public class WaypointCommand extends AbstractCommandCollection {
                                @Nonnull Ref<EntityStore> ref,
                                @Nonnull PlayerRef playerRef,
                                @Nonnull World world) {
-            Player player = store.getComponent(ref, Player.getComponentType());
             UUIDComponent uuidComp = store.getComponent(ref, UUIDComponent.getComponentType());
             if (uuidComp == null) {
                 ctx.sendMessage(Message.raw("§cError: Could not get UUID."));
@@ -264,19 +324,17 @@ public class WaypointCommand extends AbstractCommandCollection {
 
             String name = extractName(ctx, "toggle");
             if (name.isEmpty()) {
-                ctx.sendMessage(Message.raw("§cUsage: /waypoint toggle <name>"));
+                ctx.sendMessage(Message.raw(usageMessage(storage.getWaypointConfig(uuid), "toggle")));
                 return;
             }
 
             WaypointConfig config = storage.getWaypointConfig(uuid);
 
-            Waypoint waypoint = config.getWaypoints().stream()
-                .filter(wp -> wp.getName().equalsIgnoreCase(name))
-                .findFirst()
-                .orElse(null);
+            // Case-insensitive lookup through the name index
+            Waypoint waypoint = config.getNameIndex().findFirst(name);
 
             if (waypoint == null) {
-                ctx.sendMessage(Message.raw("§cWaypoint '" + name + "' not found."));
+                ctx.sendMessage(Message.raw(notFoundMessage(storage, config, name)));
                 return;
             }
 
@@ -286,16 +344,87 @@ public class WaypointCommand extends AbstractCommandCollection {
             storage.updateWaypoint(uuid, waypoint).thenAccept(v -> {
                 String status = nowVisible ? "§avisible" : "§chidden";
                 ctx.sendMessage(Message.raw("§eWaypoint '" + name + "' is now " + status));
-                world.execute(() -> {
-                    if (nowVisible) {
-                        Vector3d effectPos = new Vector3d(waypoint.getX() + 0.5, waypoint.getY() + 1.5, waypoint.getZ() + 0.5);
-                        WaypointEffects.spawn(effectPos, ref, ref.getStore());
-                    }
-                    // Sync visibility change to native map
-                    if (player != null) {
-                        MapIntegrationSystem.syncWaypointsToMap(player, storage);
-                    }
-                });
+                if (nowVisible) {
+                    Vector3d effectPos = new Vector3d(waypoint.getX() + 0.5, waypoint.getY() + 1.5, waypoint.getZ() + 0.5);
+                    // Runs on the world thread with the next HUD update
+                    HudSession.post(uuid, () -> WaypointEffects.spawn(effectPos, ref, ref.getStore()));
+                }
+                // Sync visibility change to native map (repeated toggles coalesce into one sync)
+                HudSession.post(uuid, HudMailbox.SYNC_MAP_MARKERS);
+            });
+        }
+    }
+
+    /**
+     * Hide, show or remove every waypoint matching a filter, as one change.
+     */
+    private static class BulkCommand extends AbstractPlayerCommand {
+        private static final String USAGE = "§cUsage: /waypoint bulk <hide|show|remove> " + WaypointQuery.FILTER_SYNTAX;
+        private final WaypointStorage storage;
+
+        BulkCommand(WaypointStorage storage) {
+            super("bulk", "Hide, show or remove all waypoints matching a filter");
+            this.storage = storage;
+        }
+
+        @SuppressWarnings("null")
+        @Override
+        protected void execute(@Nonnull CommandContext ctx,
+                               @Nonnull Store<EntityStore> store,
+                               @Nonnull Ref<EntityStore> ref,
+                               @Nonnull PlayerRef playerRef,
+                               @Nonnull World world) {
+            UUIDComponent uuidComp = store.getComponent(ref, UUIDComponent.getComponentType());
+            if (uuidComp == null) {
+                ctx.sendMessage(Message.raw("§cError: Could not get UUID."));
+                return;
+            }
+
+            UUID uuid = uuidComp.getUuid();
+
+            String args = extractName(ctx, "bulk");
+            int space = args.indexOf(' ');
+            WaypointBulkAction action = WaypointBulkAction.fromString(space > 0 ? args.substring(0, space) : args);
+            if (action == null) {
+                ctx.sendMessage(Message.raw(USAGE));
+                return;
+            }
+
+            WaypointQuery query;
+            try {
+                query = WaypointQuery.parse(space > 0 ? args.substring(space + 1) : "");
+            } catch (IllegalArgumentException e) {
+                ctx.sendMessage(Message.raw("§c" + e.getMessage() + ". " + USAGE.substring(2)));
+                return;
+            }
+            if (!query.hasFilters()) {
+                // Never touch every waypoint by accident - "*" matches all names explicitly
+                ctx.sendMessage(Message.raw("§cAdd at least one filter (use * for all waypoints). " + USAGE.substring(2)));
+                return;
+            }
+
+            WaypointConfig config = storage.getWaypointConfig(uuid);
+            TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
+            boolean hasPosition = transform != null;
+            int x = hasPosition ? (int) Math.floor(transform.getPosition().getX()) : 0;
+            int z = hasPosition ? (int) Math.floor(transform.getPosition().getZ()) : 0;
+
+            List<String> ids = query.matchAll(config, null, hasPosition, x, z).stream()
+                .map(Waypoint::getId)
+                .collect(Collectors.toList());
+            if (ids.isEmpty()) {
+                ctx.sendMessage(Message.raw("§eNo waypoints match."));
+                return;
+            }
+
+            // One mutation and one write for the whole selection
+            storage.applyBulk(uuid, ids, action).thenAccept(changed -> {
+                ctx.sendMessage(Message.raw("§a" + changed + " waypoint" + (changed == 1 ? "" : "s") + " "
+                    + action.getPastTense() + "."));
+                if (changed > 0) {
+                    // One native map diff for the whole change
+                    HudSession.post(uuid, HudMailbox.SYNC_MAP_MARKERS);
+                }
             });
         }
     }
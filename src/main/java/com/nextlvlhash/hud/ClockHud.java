@@ -21,15 +21,35 @@ public class ClockHud extends CustomUIHud {
 
     private final ClockElement clockElement;
     private final MinimapHud minimapHud;
+    private final HudInvalidationBus invalidationBus;
+    private volatile HudPosition builtPosition = null; // Anchor position of the last build
+    private int lastHourKey = -1; // day-of-year * 24 + hour
 
     public ClockHud(@Nonnull PlayerRef playerRef, @Nullable WaypointStorage waypointStorage) {
+        this(playerRef, waypointStorage, null);
+    }
+
+    /**
+     * Creates a HUD that replaces a previous one (e.g. after a position change).
+     * State that doesn't depend on the client's UI document - invalidation counters,
+     * waypoint list, velocity estimate - is carried over; everything sent to the client is redrawn.
+     */
+    public ClockHud(@Nonnull PlayerRef playerRef, @Nullable WaypointStorage waypointStorage, @Nullable ClockHud previous) {
         super(playerRef);
         this.clockElement = new ClockElement();
         this.minimapHud = new MinimapHud(waypointStorage, playerRef.getUuid());
+        if (previous != null) {
+            this.invalidationBus = previous.invalidationBus;
+            this.invalidationBus.markAll();
+            this.minimapHud.inheritFrom(previous.minimapHud);
+        } else {
+            this.invalidationBus = new HudInvalidationBus();
+        }
     }
 
     @Override
     public void build(@Nonnull UICommandBuilder builder) {
+        builtPosition = minimapHud.getHudPosition();
         minimapHud.build(builder);
         // Load appropriate clock position based on minimap settings
         if (minimapHud.isHudOnLeft()) {
@@ -40,29 +60,99 @@ public class ClockHud extends CustomUIHud {
     }
 
     /**
-     * Main update method called every tick.
-     * Batches all UI changes into a single network packet for optimal performance.
+     * Whether the HUD was built for a different anchor position than the player's current setting,
+     * so it has to be rebuilt to move.
+     */
+    public boolean needsRebuild() {
+        return builtPosition != minimapHud.getHudPosition();
+    }
+
+    @Nonnull
+    public HudInvalidationBus getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    @Nonnull
+    public MinimapHud getMinimapHud() {
+        return minimapHud;
+    }
+
+    /**
+     * Applies the world's HUD level from the {@link HudWatchdog} before an update.
+     */
+    public void setDegradation(@Nonnull HudDegradation level) {
+        minimapHud.setDegradation(level);
+    }
+
+    /**
+     * The player moved to another world: map colors and position no longer relate to what is shown.
+     */
+    public void onWorldChanged() {
+        minimapHud.onWorldChanged();
+        invalidationBus.markAll();
+    }
+
+    /**
+     * Flags minimap settings for reload and redraw on the next tick (safe to call from any thread).
+     */
+    public void onSettingsChanged() {
+        minimapHud.onSettingsChanged();
+        invalidationBus.mark(HudInvalidationBus.Source.SETTINGS);
+    }
+
+    /**
+     * World-thread half of an update: reads position, yaw, waypoints and settings into the
+     * {@link HudInvalidationBus}, spawns waypoint effects, and captures the frame inputs.
      *
-     * @param dateTime current world time
-     * @param world current world
-     * @param storeRef entity store reference
-     * @param playerRef player reference
+     * @return the frame to render, or null if the player entity is gone
      */
-    public void update(@Nonnull LocalDateTime dateTime,
-                       @Nonnull World world,
-                       @Nonnull Ref<EntityStore> storeRef,
-                       @Nonnull PlayerRef playerRef) {
+    @Nullable
+    public HudFrame prepare(@Nonnull LocalDateTime dateTime,
+                            @Nonnull World world,
+                            @Nonnull Ref<EntityStore> storeRef,
+                            @Nonnull PlayerRef playerRef) {
+        // Hour/day rollover drives the clock hand, day counter and night tint
+        int hourKey = dateTime.getDayOfYear() * 24 + dateTime.getHour();
+        if (hourKey != lastHourKey) {
+            lastHourKey = hourKey;
+            invalidationBus.mark(HudInvalidationBus.Source.TIME);
+        }
+
+        // Position, yaw, waypoint and settings changes
+        if (!minimapHud.observe(storeRef, playerRef, invalidationBus)) {
+            return null;
+        }
+        minimapHud.spawnEffects(storeRef);
+        return minimapHud.snapshot(dateTime, world);
+    }
+
+    /**
+     * Computes the elements whose inputs changed (see {@link HudInvalidationBus}) from a prepared frame
+     * and sends them. Touches no world state, so it may run on a {@link HudRenderPool} thread;
+     * callers must not render two frames of the same HUD at once.
+     * Batches all UI changes into a single network packet for optimal performance.
+     */
+    public void renderFrame(@Nonnull HudFrame frame) {
+        LocalDateTime dateTime = frame.getDateTime();
+        int dirty = invalidationBus.drain();
         UICommandBuilder builder = new UICommandBuilder();
         boolean changed = false;
 
-        // Add clock hand updates to builder
-        changed |= clockElement.updateClockHand(builder, dateTime);
+        if ((dirty & HudInvalidationBus.CLOCK) != 0) {
+            // Add clock hand updates to builder
+            changed |= clockElement.updateClockHand(builder, dateTime);
+
+            // Pick the minimap tint for the current time of day
+            minimapHud.applyTime(dateTime);
+        }
 
-        // Add date updates to builder
-        changed |= minimapHud.applyDate(builder, dateTime);
+        if ((dirty & HudInvalidationBus.DATE) != 0) {
+            // Add date updates to builder
+            changed |= minimapHud.applyDate(builder, dateTime);
+        }
 
-        // Add minimap updates (pixels + coords) to builder
-        changed |= minimapHud.updateMap(builder, world, storeRef, playerRef);
+        // Add minimap updates (pixels, coords, compass) to builder
+        changed |= minimapHud.updateMap(builder, frame, dirty);
 
         // Send single batched update if anything changed
         if (changed) {
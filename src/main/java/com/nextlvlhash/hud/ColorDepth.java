@@ -0,0 +1,279 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Color depth modes for minimap pixels.
+ * Lower depths merge more terrain shades into one color, so fewer pixels change per frame.
+ * Each mode maps RGB to a small color index; hex strings for every index are built once
+ * and shared by all players.
+ */
+public enum ColorDepth {
+    /** 2 bits per channel (64 colors). */
+    BITS_6("6-bit", 2, false, false),
+    /** 3 bits per channel (512 colors). */
+    BITS_9("9-bit", 3, false, false),
+    /** 4 bits per channel (4096 colors). */
+    BITS_12("12-bit", 4, false, false),
+    /** Fixed 64-color palette tuned for terrain. */
+    PALETTE_64("Palette", 0, true, false),
+    /** Fixed 64-color palette with 4x4 ordered dithering. */
+    PALETTE_64_DITHERED("Palette+Dither", 0, true, true);
+
+    // Dither offsets span +/- half of this many levels per channel
+    private static final int DITHER_SPREAD = 48;
+
+    private final String displayName;
+    private final int bitsPerChannel;
+    private final boolean palette;
+    private final boolean dithered;
+    private final String[] hexTable; // [color index] "#rrggbb"
+    private final int[] rgbTable;    // [color index] 0xRRGGBB
+
+    ColorDepth(String displayName, int bitsPerChannel, boolean palette, boolean dithered) {
+        this.displayName = displayName;
+        this.bitsPerChannel = bitsPerChannel;
+        this.palette = palette;
+        this.dithered = dithered;
+
+        int size = palette ? Palette.RGB.length : 1 << (bitsPerChannel * 3);
+        this.hexTable = new String[size];
+        this.rgbTable = new int[size];
+        for (int index = 0; index < size; index++) {
+            int rgb;
+            if (palette) {
+                rgb = Palette.RGB[index];
+            } else {
+                int mask = (1 << bitsPerChannel) - 1;
+                int r = expand((index >> (bitsPerChannel * 2)) & mask, bitsPerChannel);
+                int g = expand((index >> bitsPerChannel) & mask, bitsPerChannel);
+                int b = expand(index & mask, bitsPerChannel);
+                rgb = (r << 16) | (g << 8) | b;
+            }
+            rgbTable[index] = rgb;
+            // Use 6-digit hex for Hytale UI compatibility
+            hexTable[index] = String.format("#%06x", rgb);
+        }
+    }
+
+    /**
+     * Expands an n-bit channel value to 8 bits (e.g. 3-bit 7 -> 255).
+     */
+    private static int expand(int value, int bits) {
+        int max = (1 << bits) - 1;
+        return (value * 255 + max / 2) / max;
+    }
+
+    @SuppressWarnings("null")
+    @Nonnull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Number of distinct color indices this mode produces.
+     */
+    public int getColorCount() {
+        return hexTable.length;
+    }
+
+    public boolean isDithered() {
+        return dithered;
+    }
+
+    /**
+     * Quantizes an exact color (waypoints, markers) - never dithered.
+     * @param rgb color as 0xRRGGBB
+     */
+    public int quantize(int rgb) {
+        return quantize((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+    }
+
+    /**
+     * Quantizes to the nearest level instead of truncating.
+     * Used for derived colors (theme tables) so small tints don't always round down a level.
+     * @param rgb color as 0xRRGGBB
+     */
+    public int quantizeNearest(int rgb) {
+        if (palette) {
+            return quantize(rgb);
+        }
+        int max = (1 << bitsPerChannel) - 1;
+        int r = (((rgb >> 16) & 0xFF) * max + 127) / 255;
+        int g = (((rgb >> 8) & 0xFF) * max + 127) / 255;
+        int b = ((rgb & 0xFF) * max + 127) / 255;
+        return (r << (bitsPerChannel * 2)) | (g << bitsPerChannel) | b;
+    }
+
+    /**
+     * Quantizes a terrain color sampled at the given world position.
+     * The dither pattern is anchored to world coordinates so it moves with the terrain
+     * instead of shimmering as the player walks.
+     * @param rgb color as 0xRRGGBB
+     */
+    public int quantizeTerrain(int rgb, int worldX, int worldZ) {
+        int r = (rgb >> 16) & 0xFF;
+        int g = (rgb >> 8) & 0xFF;
+        int b = rgb & 0xFF;
+        if (dithered) {
+            int offset = Palette.BAYER_4X4[((worldZ & 3) << 2) | (worldX & 3)] * DITHER_SPREAD / 16 - DITHER_SPREAD / 2;
+            r = clampChannel(r + offset);
+            g = clampChannel(g + offset);
+            b = clampChannel(b + offset);
+        }
+        return quantize(r, g, b);
+    }
+
+    private int quantize(int r, int g, int b) {
+        if (palette) {
+            return Palette.NEAREST[((r >> 4) << 8) | ((g >> 4) << 4) | (b >> 4)];
+        }
+        int shift = 8 - bitsPerChannel;
+        return ((r >> shift) << (bitsPerChannel * 2)) | ((g >> shift) << bitsPerChannel) | (b >> shift);
+    }
+
+    private static int clampChannel(int value) {
+        return Math.max(0, Math.min(255, value));
+    }
+
+    /**
+     * Hex string for a color index, or the fallback for out-of-range values.
+     */
+    @SuppressWarnings("null")
+    @Nonnull
+    public String toHex(int index, @Nonnull String fallback) {
+        if (index < 0 || index >= hexTable.length) {
+            return fallback;
+        }
+        return hexTable[index];
+    }
+
+    /**
+     * RGB value (0xRRGGBB) for a color index, or black for out-of-range values.
+     */
+    public int toRgb(int index) {
+        if (index < 0 || index >= rgbTable.length) {
+            return 0;
+        }
+        return rgbTable[index];
+    }
+
+    /**
+     * Weighted squared distance between two color indices in 8-bit channel units
+     * (green weighted highest, red lowest).
+     */
+    public int distance(int a, int b) {
+        return Palette.weightedDistance(toRgb(a), toRgb(b));
+    }
+
+    /**
+     * Cycles to the next depth mode.
+     */
+    @Nonnull
+    public ColorDepth next() {
+        ColorDepth[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+
+    /**
+     * Parses a depth mode from its stored name.
+     * @return the mode, or null if the value is empty or unknown
+     */
+    @Nullable
+    public static ColorDepth fromString(@Nullable String value) {
+        if (value != null) {
+            for (ColorDepth depth : values()) {
+                if (depth.name().equalsIgnoreCase(value)) {
+                    return depth;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Fixed palette data. Kept in a holder class so it is initialized
+     * before the enum constants that read it.
+     */
+    private static final class Palette {
+        private static final int[] BAYER_4X4 = {
+             0,  8,  2, 10,
+            12,  4, 14,  6,
+             3, 11,  1,  9,
+            15,  7, 13,  5
+        };
+
+        // Hue families (degrees): red, brown, sand, grass, forest, water, purple
+        private static final float[] HUES = {0f, 28f, 48f, 95f, 135f, 210f, 275f};
+        // Saturation/value pairs per hue: dark to light, plus a muted and a vivid shade
+        private static final float[][] SHADES = {
+            {0.65f, 0.22f}, {0.65f, 0.38f}, {0.60f, 0.54f}, {0.50f, 0.70f},
+            {0.35f, 0.86f}, {0.20f, 0.97f}, {0.30f, 0.55f}, {0.85f, 0.75f}
+        };
+
+        private static final int[] RGB = new int[64];
+        private static final int[] NEAREST = new int[4096]; // [12-bit RGB] nearest palette index
+
+        static {
+            int i = 0;
+            // 8 greys from black to white
+            for (int level = 0; level < 8; level++) {
+                int v = level * 255 / 7;
+                RGB[i++] = (v << 16) | (v << 8) | v;
+            }
+            for (float hue : HUES) {
+                for (float[] shade : SHADES) {
+                    RGB[i++] = hsvToRgb(hue, shade[0], shade[1]);
+                }
+            }
+
+            for (int key = 0; key < NEAREST.length; key++) {
+                int r = ((key >> 8) & 0xF) * 17;
+                int g = ((key >> 4) & 0xF) * 17;
+                int b = (key & 0xF) * 17;
+                int rgb = (r << 16) | (g << 8) | b;
+                int best = 0;
+                int bestDistance = Integer.MAX_VALUE;
+                for (int p = 0; p < RGB.length; p++) {
+                    int d = weightedDistance(rgb, RGB[p]);
+                    if (d < bestDistance) {
+                        bestDistance = d;
+                        best = p;
+                    }
+                }
+                NEAREST[key] = best;
+            }
+        }
+
+        private static int weightedDistance(int a, int b) {
+            int dr = ((a >> 16) & 0xFF) - ((b >> 16) & 0xFF);
+            int dg = ((a >> 8) & 0xFF) - ((b >> 8) & 0xFF);
+            int db = (a & 0xFF) - (b & 0xFF);
+            return 2 * dr * dr + 4 * dg * dg + 3 * db * db;
+        }
+
+        private static int hsvToRgb(float hue, float saturation, float value) {
+            float c = value * saturation;
+            float h = hue / 60f;
+            float x = c * (1f - Math.abs(h % 2f - 1f));
+            float r = 0f, g = 0f, b = 0f;
+            if (h < 1f) { r = c; g = x; }
+            else if (h < 2f) { r = x; g = c; }
+            else if (h < 3f) { g = c; b = x; }
+            else if (h < 4f) { g = x; b = c; }
+            else if (h < 5f) { r = x; b = c; }
+            else { r = c; b = x; }
+            float m = value - c;
+            int ri = Math.round((r + m) * 255f);
+            int gi = Math.round((g + m) * 255f);
+            int bi = Math.round((b + m) * 255f);
+            return (ri << 16) | (gi << 8) | bi;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+
+/**
+ * HUD quality levels the {@link HudWatchdog} steps through while a world is under tick pressure.
+ * Each level also drops everything the previous one dropped.
+ */
+public enum HudDegradation {
+    /** Full cadence, progressive refinement, travel prefetch. */
+    FULL("Full", 1, 0L, true, false),
+    /** Every second tick; movement renders at most 4 times a second. */
+    REDUCED_RATE("Reduced rate", 2, 250L, true, false),
+    /** Coarse pixel pass only (no refinement, no prefetch). */
+    COARSE("Coarse", 2, 500L, true, true),
+    /** Clock, coordinates and compass only - minimap pixels frozen. */
+    COMPASS_ONLY("Compass only", 2, 1000L, false, true),
+    /** No HUD updates at all. */
+    PAUSED("Paused", 0, Long.MAX_VALUE, false, true);
+
+    private final String displayName;
+    private final int tickDivisor;          // Render every n-th scheduled tick (0 = never)
+    private final long minMovementRenderMs; // Min time between movement-driven renders
+    private final boolean pixels;
+    private final boolean coarseOnly;
+
+    HudDegradation(String displayName, int tickDivisor, long minMovementRenderMs, boolean pixels, boolean coarseOnly) {
+        this.displayName = displayName;
+        this.tickDivisor = tickDivisor;
+        this.minMovementRenderMs = minMovementRenderMs;
+        this.pixels = pixels;
+        this.coarseOnly = coarseOnly;
+    }
+
+    @SuppressWarnings("null")
+    @Nonnull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Whether the scheduled tick with the given sequence number renders at this level.
+     */
+    public boolean rendersTick(long tick) {
+        return tickDivisor > 0 && tick % tickDivisor == 0;
+    }
+
+    public long getMinMovementRenderMs() {
+        return minMovementRenderMs;
+    }
+
+    /**
+     * Whether minimap pixels are updated at all.
+     */
+    public boolean showsPixels() {
+        return pixels;
+    }
+
+    /**
+     * Whether pixel passes are limited to the coarse grid (also disables travel prefetch).
+     */
+    public boolean isCoarseOnly() {
+        return coarseOnly;
+    }
+
+    /**
+     * Next lower quality level (PAUSED stays PAUSED).
+     */
+    @Nonnull
+    public HudDegradation worse() {
+        HudDegradation[] values = values();
+        return values[Math.min(ordinal() + 1, values.length - 1)];
+    }
+
+    /**
+     * Next higher quality level (FULL stays FULL).
+     */
+    @Nonnull
+    public HudDegradation better() {
+        return values()[Math.max(ordinal() - 1, 0)];
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
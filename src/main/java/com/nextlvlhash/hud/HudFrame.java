@@ -0,0 +1,116 @@
+package com.nextlvlhash.hud;
+
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.nextlvlhash.waypoint.GlobalWaypointLayer;
+import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointDistanceView;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Inputs of one HUD frame, taken on the world thread by {@link ClockHud#prepare}.
+ * Nothing in here is shared with the entity store, waypoint storage, the world map or the tile cache,
+ * so the frame can be computed on a {@link HudRenderPool} thread while the world keeps ticking.
+ */
+public final class HudFrame {
+    private final LocalDateTime dateTime;
+    @Nullable
+    private final MinimapChunks chunks;
+    private final Vector3d position;
+    private final float yawDegrees;
+    @Nullable
+    private final List<Waypoint> waypoints;
+    private final GlobalWaypointLayer globalLayer;
+    @Nullable
+    private final WaypointDistanceView.Ranking ranking;
+
+    HudFrame(@Nonnull LocalDateTime dateTime,
+             @Nullable MinimapChunks chunks,
+             @Nonnull Vector3d position,
+             float yawDegrees,
+             @Nullable List<Waypoint> waypoints,
+             @Nonnull GlobalWaypointLayer globalLayer) {
+        this(dateTime, chunks, position, yawDegrees, waypoints, globalLayer, null);
+    }
+
+    private HudFrame(@Nonnull LocalDateTime dateTime,
+                     @Nullable MinimapChunks chunks,
+                     @Nonnull Vector3d position,
+                     float yawDegrees,
+                     @Nullable List<Waypoint> waypoints,
+                     @Nonnull GlobalWaypointLayer globalLayer,
+                     @Nullable WaypointDistanceView.Ranking ranking) {
+        this.dateTime = dateTime;
+        this.chunks = chunks;
+        this.position = position;
+        this.yawDegrees = yawDegrees;
+        this.waypoints = waypoints;
+        this.globalLayer = globalLayer;
+        this.ranking = ranking;
+    }
+
+    /**
+     * The same frame with the session's nearest-first ranking attached.
+     */
+    @Nonnull
+    HudFrame withRanking(@Nonnull WaypointDistanceView.Ranking ranking) {
+        return new HudFrame(dateTime, chunks, position, yawDegrees, waypoints, globalLayer, ranking);
+    }
+
+    @Nonnull
+    public LocalDateTime getDateTime() {
+        return dateTime;
+    }
+
+    /**
+     * Terrain colors around the player, copied from the world map and tile cache on the world thread;
+     * null if the world has no map or the minimap shows no pixels.
+     */
+    @Nullable
+    public MinimapChunks getChunks() {
+        return chunks;
+    }
+
+    /**
+     * Player position - a copy, not the transform component's live vector.
+     */
+    @Nonnull
+    public Vector3d getPosition() {
+        return position;
+    }
+
+    /**
+     * Player yaw in degrees [0, 360).
+     */
+    public float getYawDegrees() {
+        return yawDegrees;
+    }
+
+    /**
+     * Visible personal waypoints as detached, unmodifiable copies, or null before the first load.
+     */
+    @Nullable
+    public List<Waypoint> getWaypoints() {
+        return waypoints;
+    }
+
+    /**
+     * Global waypoints - the shared snapshot itself, already immutable.
+     */
+    @Nonnull
+    public GlobalWaypointLayer getGlobalLayer() {
+        return globalLayer;
+    }
+
+    /**
+     * Personal and nearby global waypoints nearest first, or null if the frame was prepared without
+     * a session (the compass then sorts the frame's waypoints itself).
+     */
+    @Nullable
+    public WaypointDistanceView.Ranking getRanking() {
+        return ranking;
+    }
+}
@@ -0,0 +1,120 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-player dirty flags for HUD elements.
+ * Input sources mark the elements that depend on them; the HUD tick drains the flags and only
+ * recomputes those elements. Every mark is counted per source so it is visible what drives HUD work.
+ * Marks may come from any thread.
+ */
+public class HudInvalidationBus {
+
+    // Element bits
+    public static final int CLOCK = 1;
+    public static final int DATE = 1 << 1;
+    public static final int COORDS = 1 << 2;
+    public static final int PIXELS = 1 << 3;
+    public static final int COMPASS = 1 << 4;
+    public static final int ALL = CLOCK | DATE | COORDS | PIXELS | COMPASS;
+
+    /**
+     * What changed, and which elements depend on it.
+     */
+    public enum Source {
+        /** World hour or day rolled over (clock hand, day counter, night tint). */
+        TIME(CLOCK | DATE | PIXELS),
+        /** Player moved to another block or turned past the rotation threshold. */
+        MOVEMENT(COORDS | PIXELS | COMPASS),
+        /** Waypoint config was written to storage. */
+        WAYPOINTS(PIXELS | COMPASS),
+        /** Minimap settings changed (zoom, layout, colors, theme). */
+        SETTINGS(PIXELS | COMPASS),
+        /** Periodic terrain refresh for map images that load asynchronously. */
+        MAP_REFRESH(PIXELS);
+
+        private final int elements;
+
+        Source(int elements) {
+            this.elements = elements;
+        }
+
+        public int getElements() {
+            return elements;
+        }
+    }
+
+    private static final AtomicLong[] TOTAL_COUNTS = newCounters();
+
+    private final AtomicInteger dirty = new AtomicInteger(ALL); // Everything is dirty on the first tick
+    private final AtomicLong[] counts = newCounters();
+
+    private static AtomicLong[] newCounters() {
+        AtomicLong[] counters = new AtomicLong[Source.values().length];
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new AtomicLong();
+        }
+        return counters;
+    }
+
+    /**
+     * Marks the elements that depend on a source as dirty.
+     */
+    public void mark(@Nonnull Source source) {
+        dirty.getAndUpdate(d -> d | source.elements);
+        counts[source.ordinal()].incrementAndGet();
+        TOTAL_COUNTS[source.ordinal()].incrementAndGet();
+    }
+
+    /**
+     * Whether every element a source marks is already dirty (so marking it again changes nothing).
+     */
+    public boolean isMarked(@Nonnull Source source) {
+        return (dirty.get() & source.elements) == source.elements;
+    }
+
+    /**
+     * Marks every element dirty without counting a source (e.g. after the HUD was rebuilt).
+     */
+    public void markAll() {
+        dirty.set(ALL);
+    }
+
+    /**
+     * Takes the current dirty elements and clears them.
+     * @return bitmask of dirty elements
+     */
+    public int drain() {
+        return dirty.getAndSet(0);
+    }
+
+    /**
+     * Formats per-source counters, e.g. "TIME=3 MOVEMENT=120 ...".
+     */
+    @Nonnull
+    public String describe() {
+        return describe(counts);
+    }
+
+    /**
+     * Formats per-source counters of all players since startup.
+     */
+    @Nonnull
+    public static String describeTotals() {
+        return describe(TOTAL_COUNTS);
+    }
+
+    @Nonnull
+    private static String describe(@Nonnull AtomicLong[] counters) {
+        StringBuilder sb = new StringBuilder();
+        for (Source source : Source.values()) {
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append(source.name()).append('=').append(counters[source.ordinal()].get());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,86 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-session inbox for work that has to run on the player's world thread.
+ * Commands, storage callbacks, pages and packet filters post from any thread without locks;
+ * the session drains the mailbox once per HUD render on the world thread.
+ * Idempotent operations are bits in one mask, so posting one several times before a drain runs it once.
+ * Everything else is queued as a task and runs in posting order.
+ */
+public class HudMailbox {
+
+    // Coalesced operations
+    /** Re-send all visible waypoints to the native world map. */
+    public static final int SYNC_MAP_MARKERS = 1;
+    /** Reload minimap settings (zoom, layout, colors, theme) on the live HUD. */
+    public static final int SETTINGS_CHANGED = 1 << 1;
+    /** Apply saved settings, rebuilding the HUD if its position changed. */
+    public static final int APPLY_SETTINGS = 1 << 2;
+
+    private final AtomicInteger pendingOps = new AtomicInteger();
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicLong posted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Posts a coalesced operation.
+     * @return true if it was not already pending
+     */
+    public boolean post(int op) {
+        posted.incrementAndGet();
+        int previous = pendingOps.getAndUpdate(p -> p | op);
+        if ((previous & op) == op) {
+            coalesced.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Queues a task to run on the world thread.
+     */
+    public void post(@Nonnull Runnable task) {
+        posted.incrementAndGet();
+        tasks.add(task);
+    }
+
+    /**
+     * Takes the pending operations and clears them.
+     * @return bitmask of operations
+     */
+    public int drainOps() {
+        return pendingOps.getAndSet(0);
+    }
+
+    /**
+     * Takes the next queued task, or null when none is left.
+     */
+    @Nullable
+    public Runnable pollTask() {
+        return tasks.poll();
+    }
+
+    public boolean isEmpty() {
+        return pendingOps.get() == 0 && tasks.isEmpty();
+    }
+
+    /**
+     * Number of operations and tasks posted to this mailbox.
+     */
+    public long getPostedCount() {
+        return posted.get();
+    }
+
+    /**
+     * Number of posted operations that merged into one already pending.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+}
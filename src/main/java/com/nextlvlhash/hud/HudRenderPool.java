@@ -0,0 +1,126 @@
+package com.nextlvlhash.hud;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+
+import javax.annotation.Nonnull;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shared fork-join pool that computes HUD frames off the world threads.
+ * A world thread only observes the player and captures a {@link HudFrame}; sampling map pixels,
+ * diffing and building the UI commands run here, so the frames of all players in a world
+ * are computed in parallel instead of one after another on that world's thread.
+ * Sized to a configurable share of the host's cores; with a share of 0 frames render inline.
+ */
+public final class HudRenderPool {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static volatile ForkJoinPool pool; // null = render on the world thread
+    private static final AtomicLong frames = new AtomicLong();
+    private static final AtomicLong frameNanos = new AtomicLong();
+    private static final AtomicLong failures = new AtomicLong();
+    private static final AtomicInteger running = new AtomicInteger();
+    private static final AtomicInteger peakRunning = new AtomicInteger();
+
+    private HudRenderPool() {
+    }
+
+    /**
+     * Starts the pool with floor(cores * coreShare) threads. Shares below one core keep rendering inline.
+     */
+    public static synchronized void start(double coreShare) {
+        if (pool != null) {
+            return;
+        }
+        int cores = Runtime.getRuntime().availableProcessors();
+        int parallelism = (int) Math.floor(cores * coreShare);
+        if (parallelism < 1) {
+            LOGGER.atInfo().log("HUD frames render on world threads (%d cores, share %.2f)", cores, coreShare);
+            return;
+        }
+        startThreads(parallelism);
+        LOGGER.atInfo().log("HUD render pool started with %d of %d cores", parallelism, cores);
+    }
+
+    /**
+     * Starts the pool with an exact thread count (the scaling benchmark steps through counts).
+     */
+    static synchronized void startThreads(int parallelism) {
+        if (pool != null) {
+            return;
+        }
+        // FIFO order: frames are independent tasks, never joined
+        pool = new ForkJoinPool(parallelism, HudRenderPool::newThread, null, true);
+    }
+
+    public static synchronized void stop() {
+        ForkJoinPool current = pool;
+        pool = null;
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    public static boolean isEnabled() {
+        return pool != null;
+    }
+
+    /**
+     * Computes a frame on the pool.
+     * @return false if the pool is off or shutting down - the caller renders inline
+     */
+    public static boolean submit(@Nonnull Runnable frame) {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            return false;
+        }
+        try {
+            current.execute(() -> run(frame));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private static void run(@Nonnull Runnable frame) {
+        int now = running.incrementAndGet();
+        peakRunning.accumulateAndGet(now, Math::max);
+        long start = System.nanoTime();
+        try {
+            frame.run();
+        } catch (Exception e) {
+            failures.incrementAndGet();
+            LOGGER.atWarning().log("HUD frame failed: %s", e.getMessage());
+        } finally {
+            frameNanos.addAndGet(System.nanoTime() - start);
+            frames.incrementAndGet();
+            running.decrementAndGet();
+        }
+    }
+
+    @Nonnull
+    private static ForkJoinWorkerThread newThread(@Nonnull ForkJoinPool owner) {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(owner);
+        thread.setName("HudRender-" + thread.getPoolIndex());
+        return thread;
+    }
+
+    /**
+     * Formats pool metrics, e.g. "pool 8 threads: 5120 frames, avg 140us, peak 8 parallel, 0 failed".
+     */
+    @Nonnull
+    public static String describe() {
+        ForkJoinPool current = pool;
+        if (current == null) {
+            return "pool off: frames render on world threads";
+        }
+        long count = frames.get();
+        long avgMicros = count == 0 ? 0 : frameNanos.get() / count / 1000;
+        return "pool " + current.getParallelism() + " threads: " + count + " frames, avg " + avgMicros
+                + "us, peak " + peakRunning.get() + " parallel, " + failures.get() + " failed";
+    }
+}
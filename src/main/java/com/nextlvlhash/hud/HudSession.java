@@ -0,0 +1,548 @@
+package com.nextlvlhash.hud;
+
+import com.hypixel.hytale.component.Ref;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.entity.entities.Player;
+import com.hypixel.hytale.server.core.modules.time.WorldTimeResource;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.storage.WaypointStorage;
+import com.nextlvlhash.system.MapIntegrationSystem;
+import com.nextlvlhash.waypoint.WaypointDistanceView;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Everything the plugin keeps per connected player: the HUD, its update task, its mailbox,
+ * the open-page state and per-player cost metrics.
+ * The player's world is resolved on every tick, so a player moving between worlds keeps a working HUD
+ * and no work is queued on a world they left. Sessions start on PlayerReadyEvent and end on disconnect.
+ * Work from other threads is posted to the {@link HudMailbox} and drained on the world thread right
+ * before the HUD renders, sharing one world task with it.
+ * The world task only prepares a {@link HudFrame}; the frame is computed and sent on the
+ * {@link HudRenderPool} when it is enabled. At most one frame per session is in flight, and the
+ * next world task (mailbox work, rebuilds) waits for it, so updates reach the client in order.
+ */
+public class HudSession {
+
+    private static final long TICK_INTERVAL_MS = 750L; // Time, waypoint, settings and map refresh changes
+    private static final long MAX_PAUSE_MS = 120_000L; // Resume even if a page dismissal was missed
+    private static final ConcurrentHashMap<UUID, HudSession> SESSIONS = new ConcurrentHashMap<>();
+
+    private final UUID uuid;
+    private final PlayerRef playerRef;
+    @Nullable
+    private final WaypointStorage waypointStorage;
+    private final HudMailbox mailbox = new HudMailbox();
+    private final WaypointDistanceView distanceView = new WaypointDistanceView(); // Nearest-first waypoints
+    private volatile ClockHud hud;
+    private volatile ScheduledFuture<?> task;
+    private volatile World world; // World of the last tick
+    private volatile Object openPage = null; // Plugin page currently open (HUD paused while set)
+    private volatile long pageOpenedMs = 0L;
+    private volatile long lastMenuTriggerMs = 0L;
+    private final AtomicBoolean renderQueued = new AtomicBoolean(false); // Render waiting on the world thread
+    private final AtomicBoolean frameInFlight = new AtomicBoolean(false); // Frame computing on the render pool
+    private volatile boolean renderAfterFrame = false; // Render requested while a frame was in flight
+    private volatile long lastRenderMs = 0L;
+
+    // Metrics
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong pausedTicks = new AtomicLong();
+    private final AtomicLong skippedTicks = new AtomicLong(); // Player not in a world (loading, changing worlds)
+    private final AtomicLong throttledTicks = new AtomicLong(); // Renders held back by the HUD watchdog
+    private final AtomicLong renders = new AtomicLong();
+    private final AtomicLong renderNanos = new AtomicLong(); // World-thread time only
+    private final AtomicLong pooledFrames = new AtomicLong();
+    private final AtomicLong poolNanos = new AtomicLong();
+    private final AtomicLong worldChanges = new AtomicLong();
+
+    private HudSession(@Nonnull PlayerRef playerRef, @Nonnull ClockHud hud, @Nullable WaypointStorage waypointStorage) {
+        this.uuid = playerRef.getUuid();
+        this.playerRef = playerRef;
+        this.hud = hud;
+        this.waypointStorage = waypointStorage;
+    }
+
+    /**
+     * Starts a session for a player with their initial HUD, replacing any previous session.
+     */
+    @Nonnull
+    public static HudSession start(@Nonnull PlayerRef playerRef,
+                                   @Nonnull ClockHud hud,
+                                   @Nonnull World world,
+                                   @Nullable WaypointStorage waypointStorage) {
+        HudSession session = new HudSession(playerRef, hud, waypointStorage);
+        session.world = world;
+        HudSession previous = SESSIONS.put(session.uuid, session);
+        if (previous != null) {
+            previous.release();
+        }
+        session.task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
+                session::tick, TICK_INTERVAL_MS, TICK_INTERVAL_MS, TimeUnit.MILLISECONDS);
+        return session;
+    }
+
+    /**
+     * Ends a player's session and releases its task and HUD (called on disconnect).
+     */
+    public static void end(@Nonnull UUID playerUuid) {
+        HudSession session = SESSIONS.remove(playerUuid);
+        if (session != null) {
+            session.release();
+        }
+    }
+
+    @Nullable
+    public static HudSession get(@Nonnull UUID playerUuid) {
+        return SESSIONS.get(playerUuid);
+    }
+
+    @Nonnull
+    public static Collection<HudSession> all() {
+        return Collections.unmodifiableCollection(SESSIONS.values());
+    }
+
+    /**
+     * Posts a coalesced {@link HudMailbox} operation for a player (safe to call from any thread).
+     * @return false if the player has no session
+     */
+    public static boolean post(@Nonnull UUID playerUuid, int op) {
+        HudSession session = SESSIONS.get(playerUuid);
+        if (session == null) {
+            return false;
+        }
+        session.mailbox.post(op);
+        session.requestRender();
+        return true;
+    }
+
+    /**
+     * Queues a task to run on the player's world thread (safe to call from any thread).
+     * @return false if the player has no session
+     */
+    public static boolean post(@Nonnull UUID playerUuid, @Nonnull Runnable task) {
+        HudSession session = SESSIONS.get(playerUuid);
+        if (session == null) {
+            return false;
+        }
+        session.mailbox.post(task);
+        session.requestRender();
+        return true;
+    }
+
+    /**
+     * Posts a coalesced operation to every session and renders them in one batched task per world,
+     * instead of one queued task per player (used for changes that affect everyone, like global waypoints).
+     * Players changing worlds pick the operation up with their next tick.
+     */
+    public static void broadcast(int op) {
+        Map<World, List<HudSession>> byWorld = new HashMap<>();
+        for (HudSession session : SESSIONS.values()) {
+            session.mailbox.post(op);
+            World current = session.world;
+            if (current != null && current.isAlive()) {
+                byWorld.computeIfAbsent(current, k -> new ArrayList<>()).add(session);
+            }
+        }
+        for (Map.Entry<World, List<HudSession>> entry : byWorld.entrySet()) {
+            World current = entry.getKey();
+            List<HudSession> sessions = entry.getValue();
+            current.execute(() -> {
+                for (HudSession session : sessions) {
+                    session.renderInBatch(current);
+                }
+            });
+        }
+    }
+
+    /**
+     * Renders as part of a batched world task, unless a render is already queued or a frame is computing
+     * (those drain the mailbox themselves).
+     */
+    private void renderInBatch(@Nonnull World current) {
+        Ref<EntityStore> storeRef = playerRef.getReference();
+        if (hud == null || storeRef == null || !storeRef.isValid() || renderQueued.get()) {
+            return;
+        }
+        if (frameInFlight.get()) {
+            requestRender();
+            return;
+        }
+        render(current, storeRef);
+    }
+
+    /**
+     * Marks one of the plugin's pages as open; HUD updates pause until it is dismissed.
+     */
+    public static void pageOpened(@Nonnull UUID playerUuid, @Nonnull Object page) {
+        HudSession session = SESSIONS.get(playerUuid);
+        if (session != null) {
+            session.openPage = page;
+            session.pageOpenedMs = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Resumes HUD updates if the dismissed page is the one that paused them
+     * (pages opened from another page replace it before the old one is dismissed).
+     */
+    public static void pageClosed(@Nonnull UUID playerUuid, @Nonnull Object page) {
+        HudSession session = SESSIONS.get(playerUuid);
+        if (session != null && session.openPage == page) {
+            session.openPage = null;
+            // Apply whatever was marked while paused right away
+            session.requestRender();
+        }
+    }
+
+    private void release() {
+        ScheduledFuture<?> running = task;
+        if (running != null) {
+            running.cancel(false);
+        }
+        task = null;
+        hud = null;
+        openPage = null;
+    }
+
+    @Nonnull
+    public UUID getUuid() {
+        return uuid;
+    }
+
+    @Nonnull
+    public PlayerRef getPlayerRef() {
+        return playerRef;
+    }
+
+    /**
+     * Gets the HUD currently shown to the player, or null once the session ended.
+     */
+    @Nullable
+    public ClockHud getHud() {
+        return hud;
+    }
+
+    /**
+     * Replaces the HUD (after a rebuild); ticks update the new instance from now on.
+     */
+    public void setHud(@Nonnull ClockHud hud) {
+        this.hud = hud;
+    }
+
+    /**
+     * World the HUD last rendered in.
+     */
+    @Nullable
+    public World getWorld() {
+        return world;
+    }
+
+    @Nonnull
+    public HudMailbox getMailbox() {
+        return mailbox;
+    }
+
+    /**
+     * Nearest-first view of the player's waypoints, re-ranked as the HUD renders.
+     * Pages and commands read it on the world thread.
+     */
+    @Nonnull
+    public WaypointDistanceView getDistanceView() {
+        return distanceView;
+    }
+
+    /**
+     * Distance view of a player's session, or null if the player has no session.
+     */
+    @Nullable
+    public static WaypointDistanceView distanceView(@Nonnull UUID playerUuid) {
+        HudSession session = SESSIONS.get(playerUuid);
+        return session != null ? session.distanceView : null;
+    }
+
+    public boolean isPaused() {
+        if (openPage == null) {
+            return false;
+        }
+        if (System.currentTimeMillis() - pageOpenedMs > MAX_PAUSE_MS) {
+            openPage = null;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Time of the last menu hotkey press, for the hotkey cooldown.
+     */
+    public long getLastMenuTriggerMs() {
+        return lastMenuTriggerMs;
+    }
+
+    public void setLastMenuTriggerMs(long lastMenuTriggerMs) {
+        this.lastMenuTriggerMs = lastMenuTriggerMs;
+    }
+
+    /**
+     * Scheduled tick: resolves the player's current world and queues a render there.
+     */
+    private void tick() {
+        if (!playerRef.isValid()) {
+            end(uuid);
+            return;
+        }
+        long tick = ticks.incrementAndGet();
+        if (isPaused()) {
+            pausedTicks.incrementAndGet();
+            return;
+        }
+        // The watchdog may thin out ticks while the world is under pressure
+        if (!HudWatchdog.getLevel(world).rendersTick(tick)) {
+            throttledTicks.incrementAndGet();
+            if (!mailbox.isEmpty()) {
+                requestRender(); // Posted work is never held back
+            }
+            return;
+        }
+        requestRender();
+    }
+
+    /**
+     * Queues a render for player movement, unless the world's HUD level limits movement renders
+     * and the last render was too recent. The movement mark stays on the bus for the next render either way.
+     */
+    public void requestMovementRender() {
+        long minInterval = HudWatchdog.getLevel(world).getMinMovementRenderMs();
+        if (minInterval > 0L && System.currentTimeMillis() - lastRenderMs < minInterval) {
+            throttledTicks.incrementAndGet();
+            return;
+        }
+        requestRender();
+    }
+
+    /**
+     * Queues a HUD update on the player's current world thread (safe to call from any thread).
+     * At most one render is queued per player; further requests before it runs are merged into it.
+     * Requests while a frame is computing are deferred until it was sent.
+     * While paused, only queues a mailbox drain if something was posted.
+     */
+    public void requestRender() {
+        if (hud == null || (isPaused() && mailbox.isEmpty())) {
+            return;
+        }
+        if (frameInFlight.get()) {
+            renderAfterFrame = true;
+            if (frameInFlight.get()) {
+                return; // Re-requested when the frame completes
+            }
+        }
+        Ref<EntityStore> storeRef = playerRef.getReference();
+        if (storeRef == null || !storeRef.isValid()) {
+            skippedTicks.incrementAndGet();
+            return;
+        }
+        World current = storeRef.getStore().getExternalData().getWorld();
+        if (current == null || !current.isAlive()) {
+            skippedTicks.incrementAndGet();
+            return;
+        }
+        if (!renderQueued.compareAndSet(false, true)) {
+            return;
+        }
+        current.execute(() -> {
+            renderQueued.set(false);
+            render(current, storeRef);
+        });
+    }
+
+    /**
+     * Drains the mailbox, then updates the HUD with the current world time. Runs on the world thread.
+     */
+    private void render(@Nonnull World current, @Nonnull Ref<EntityStore> storeRef) {
+        if (hud == null || !playerRef.isValid() || !storeRef.isValid()) {
+            return;
+        }
+        // The player left this world while the render was queued - the mailbox waits for the next one
+        if (storeRef.getStore().getExternalData().getWorld() != current) {
+            skippedTicks.incrementAndGet();
+            return;
+        }
+        // Queued before the previous frame went to the pool - retry once it was sent
+        if (frameInFlight.get()) {
+            renderAfterFrame = true;
+            if (frameInFlight.get()) {
+                return;
+            }
+        }
+        if (world != current) {
+            world = current;
+            worldChanges.incrementAndGet();
+            hud.onWorldChanged();
+            // Native map markers are stored per world
+            mailbox.post(HudMailbox.SYNC_MAP_MARKERS);
+        }
+
+        drainMailbox(storeRef);
+
+        // A rebuild while draining may have replaced the HUD
+        ClockHud clockHud = hud;
+        HudDegradation level = HudWatchdog.getLevel(current);
+        if (clockHud == null || isPaused() || level == HudDegradation.PAUSED) {
+            return;
+        }
+        clockHud.setDegradation(level);
+
+        WorldTimeResource timeResource = storeRef.getStore().getResource(WorldTimeResource.getResourceType());
+        if (timeResource == null) {
+            return;
+        }
+        long start = System.nanoTime();
+        LocalDateTime dateTime = timeResource.getGameDateTime();
+        HudFrame prepared = clockHud.prepare(dateTime, current, storeRef, playerRef);
+        if (prepared != null && waypointStorage != null) {
+            // One ranking feeds the compass, the list page and /waypoint list; re-ranked only after moving a bit
+            prepared = prepared.withRanking(distanceView.update(waypointStorage.getWaypointConfig(uuid),
+                    waypointStorage.getGlobalLayer(),
+                    (int) Math.floor(prepared.getPosition().getX()), (int) Math.floor(prepared.getPosition().getZ())));
+        }
+        HudFrame frame = prepared;
+        boolean restream = frame != null && waypointStorage != null
+                && waypointStorage.getServerConfig().getMarkerStreamRadius() > 0
+                && MapIntegrationSystem.updateStreamAnchor(uuid, current.getName(),
+                        (int) Math.floor(frame.getPosition().getX()), (int) Math.floor(frame.getPosition().getZ()));
+        if (frame != null) {
+            frameInFlight.set(true);
+            if (!HudRenderPool.submit(() -> computeFrame(clockHud, frame))) {
+                // Pool off: compute on the world thread
+                frameInFlight.set(false);
+                clockHud.renderFrame(frame);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        renderNanos.addAndGet(elapsed);
+        renders.incrementAndGet();
+        lastRenderMs = System.currentTimeMillis();
+        // Only world-thread time counts against the world
+        HudWatchdog.recordRender(current, elapsed);
+
+        if (restream) {
+            // Entered another marker region - re-stream native map markers with the next render
+            mailbox.post(HudMailbox.SYNC_MAP_MARKERS);
+            requestRender();
+        }
+    }
+
+    /**
+     * Computes and sends a frame on the render pool, then releases renders deferred meanwhile.
+     */
+    private void computeFrame(@Nonnull ClockHud clockHud, @Nonnull HudFrame frame) {
+        long start = System.nanoTime();
+        try {
+            clockHud.renderFrame(frame);
+        } finally {
+            poolNanos.addAndGet(System.nanoTime() - start);
+            pooledFrames.incrementAndGet();
+            frameInFlight.set(false);
+            if (renderAfterFrame) {
+                renderAfterFrame = false;
+                requestRender();
+            }
+        }
+    }
+
+    /**
+     * Runs queued tasks in order, then each pending operation once.
+     */
+    @SuppressWarnings("null")
+    private void drainMailbox(@Nonnull Ref<EntityStore> storeRef) {
+        Runnable task;
+        while ((task = mailbox.pollTask()) != null) {
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.out.println("[HudMod] Error running HUD task for " + playerRef.getUsername() + ": " + e.getMessage());
+                e.printStackTrace();
+            }
+        }
+
+        int ops = mailbox.drainOps();
+        if (ops == 0) {
+            return;
+        }
+        Store<EntityStore> store = storeRef.getStore();
+        ClockHud clockHud = hud;
+
+        if ((ops & HudMailbox.APPLY_SETTINGS) != 0 && clockHud != null
+                && clockHud.needsRebuild() && waypointStorage != null) {
+            // Position changed - the HUD document has to be rebuilt
+            HudRefreshHelper.rebuildHud(storeRef, store, playerRef, waypointStorage);
+        } else if ((ops & (HudMailbox.APPLY_SETTINGS | HudMailbox.SETTINGS_CHANGED)) != 0 && clockHud != null) {
+            clockHud.onSettingsChanged();
+        }
+
+        if ((ops & HudMailbox.SYNC_MAP_MARKERS) != 0 && waypointStorage != null) {
+            Player player = store.getComponent(storeRef, Player.getComponentType());
+            if (player != null) {
+                MapIntegrationSystem.syncWaypointsToMap(player, waypointStorage);
+            }
+        }
+    }
+
+    public long getRenderCount() {
+        return renders.get();
+    }
+
+    /**
+     * Average time a render spent on the world thread, in microseconds.
+     */
+    public long getAverageRenderMicros() {
+        long count = renders.get();
+        return count == 0 ? 0 : renderNanos.get() / count / 1000;
+    }
+
+    /**
+     * Average time a frame computed on the render pool, in microseconds.
+     */
+    public long getAveragePoolMicros() {
+        long count = pooledFrames.get();
+        return count == 0 ? 0 : poolNanos.get() / count / 1000;
+    }
+
+    /**
+     * Formats per-player metrics, e.g. "ticks=120 paused=8 skipped=0 throttled=0 renders=140 avg=25us pooled=140/90us worlds=1 mailbox=12/5 coalesced, ranked 56: 3 rebuilds, 41 re-ranks, 96 skipped, invalidations TIME=3 MOVEMENT=120 ..., suppressed=40 prefetched=12".
+     */
+    @Nonnull
+    public String describe() {
+        ClockHud clockHud = hud;
+        return "ticks=" + ticks.get()
+                + " paused=" + pausedTicks.get()
+                + " skipped=" + skippedTicks.get()
+                + " throttled=" + throttledTicks.get()
+                + " renders=" + renders.get()
+                + " avg=" + getAverageRenderMicros() + "us"
+                + " pooled=" + pooledFrames.get() + "/" + getAveragePoolMicros() + "us"
+                + " worlds=" + worldChanges.get()
+                + " mailbox=" + mailbox.getPostedCount() + "/" + mailbox.getCoalescedCount() + " coalesced, "
+                + distanceView.describe()
+                + (clockHud != null ? ", invalidations " + clockHud.getInvalidationBus().describe()
+                        + ", suppressed=" + clockHud.getMinimapHud().getSuppressedChangeCount()
+                        + " prefetched=" + clockHud.getMinimapHud().getPrefetchedChunkCount() : "");
+    }
+}
@@ -0,0 +1,184 @@
+package com.nextlvlhash.hud;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.server.core.HytaleServer;
+import com.hypixel.hytale.server.core.universe.world.World;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps HUD work from pushing a world below its target tick rate.
+ * Once a second it compares, per world, the time HUD renders spent on the world thread and how long
+ * a probe task waited in the world's queue (tick lag). Sustained pressure steps the world's HUDs down
+ * one {@link HudDegradation} level; sustained headroom steps them back up. Recovery needs a longer
+ * healthy streak than degradation needs a stressed one, so levels don't flap.
+ */
+public final class HudWatchdog {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final long WINDOW_MS = 1000L;
+    private static final double LAG_STRESS_MS = 100.0;   // Probe waited ~3 ticks: the world is behind
+    private static final double LAG_HEALTHY_MS = 40.0;
+    private static final double HUD_STRESS_MS = 25.0;    // HUD time per window (2.5% of the world thread)
+    private static final double HUD_HEALTHY_MS = 10.0;
+    private static final int STRESS_WINDOWS = 2;         // Consecutive stressed windows before degrading
+    private static final int HEALTHY_WINDOWS = 10;       // Consecutive healthy windows before recovering
+
+    private static final ConcurrentHashMap<String, WorldState> WORLDS = new ConcurrentHashMap<>();
+    private static volatile ScheduledFuture<?> task;
+
+    private HudWatchdog() {
+    }
+
+    /**
+     * Per-world measurements and level.
+     */
+    private static final class WorldState {
+        private volatile HudDegradation level = HudDegradation.FULL;
+        private final AtomicLong hudNanos = new AtomicLong();
+        private volatile long probeSentNanos = 0L; // 0 = no probe outstanding
+        private volatile double lastLagMs = 0.0;
+        private volatile double lastHudMs = 0.0;
+        private int stressedWindows = 0;
+        private int healthyWindows = 0;
+        private long transitions = 0L;
+    }
+
+    /**
+     * Starts the once-a-second evaluation.
+     */
+    public static synchronized void start() {
+        if (task == null) {
+            task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(
+                    HudWatchdog::evaluate, WINDOW_MS, WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    public static synchronized void stop() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        WORLDS.clear();
+    }
+
+    /**
+     * Adds time spent rendering a HUD on a world's thread to the current window.
+     */
+    public static void recordRender(@Nonnull World world, long nanos) {
+        WorldState state = WORLDS.computeIfAbsent(world.getName(), k -> new WorldState());
+        state.hudNanos.addAndGet(nanos);
+    }
+
+    /**
+     * Current HUD level for a world (FULL for worlds without measurements).
+     */
+    @Nonnull
+    public static HudDegradation getLevel(@Nullable World world) {
+        if (world == null) {
+            return HudDegradation.FULL;
+        }
+        WorldState state = WORLDS.get(world.getName());
+        return state != null ? state.level : HudDegradation.FULL;
+    }
+
+    /**
+     * One line per world, e.g. "world: Full (lag 3.1ms, hud 1.2ms/s, 0 transitions)".
+     */
+    @Nonnull
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Map.Entry<String, WorldState> entry : WORLDS.entrySet()) {
+            WorldState state = entry.getValue();
+            lines.add(String.format("%s: %s (lag %.1fms, hud %.1fms/s, %d transitions)",
+                    entry.getKey(), state.level.getDisplayName(), state.lastLagMs, state.lastHudMs, state.transitions));
+        }
+        return lines;
+    }
+
+    private static void evaluate() {
+        try {
+            // Worlds that currently have HUD sessions
+            Map<String, World> worlds = new HashMap<>();
+            for (HudSession session : HudSession.all()) {
+                World world = session.getWorld();
+                if (world != null && world.isAlive()) {
+                    worlds.put(world.getName(), world);
+                }
+            }
+            WORLDS.keySet().retainAll(worlds.keySet());
+
+            long now = System.nanoTime();
+            for (Map.Entry<String, World> entry : worlds.entrySet()) {
+                WorldState state = WORLDS.computeIfAbsent(entry.getKey(), k -> new WorldState());
+                evaluate(entry.getKey(), state, now);
+                sendProbe(entry.getValue(), state, now);
+            }
+        } catch (Exception e) {
+            LOGGER.atWarning().log("HUD watchdog evaluation failed: %s", e.getMessage());
+        }
+    }
+
+    private static void evaluate(@Nonnull String worldName, @Nonnull WorldState state, long now) {
+        double hudMs = state.hudNanos.getAndSet(0L) / 1_000_000.0;
+        long sent = state.probeSentNanos;
+        // A probe still waiting after a whole window counts with its age so far
+        double lagMs = sent != 0L ? (now - sent) / 1_000_000.0 : state.lastLagMs;
+        state.lastHudMs = hudMs;
+        if (sent != 0L) {
+            state.lastLagMs = lagMs;
+        }
+
+        boolean stressed = lagMs > LAG_STRESS_MS || hudMs > HUD_STRESS_MS;
+        boolean healthy = lagMs < LAG_HEALTHY_MS && hudMs < HUD_HEALTHY_MS;
+        if (stressed) {
+            state.stressedWindows++;
+            state.healthyWindows = 0;
+        } else if (healthy) {
+            state.healthyWindows++;
+            state.stressedWindows = 0;
+        } else {
+            // In between: hold the current level
+            state.stressedWindows = 0;
+            state.healthyWindows = 0;
+        }
+
+        HudDegradation next = state.level;
+        if (state.stressedWindows >= STRESS_WINDOWS) {
+            next = state.level.worse();
+        } else if (state.healthyWindows >= HEALTHY_WINDOWS) {
+            next = state.level.better();
+        }
+        if (next != state.level) {
+            LOGGER.atInfo().log("HUD level for world %s: %s -> %s (lag %.1fms, hud %.1fms/s)",
+                    worldName, state.level.getDisplayName(), next.getDisplayName(), lagMs, hudMs);
+            state.level = next;
+            state.transitions++;
+            state.stressedWindows = 0;
+            state.healthyWindows = 0;
+        }
+    }
+
+    /**
+     * Measures how long a task waits in the world's queue. Only one probe per world is in flight.
+     */
+    private static void sendProbe(@Nonnull World world, @Nonnull WorldState state, long now) {
+        if (state.probeSentNanos != 0L) {
+            return;
+        }
+        state.probeSentNanos = now;
+        world.execute(() -> {
+            state.lastLagMs = (System.nanoTime() - now) / 1_000_000.0;
+            state.probeSentNanos = 0L;
+        });
+    }
+}
@@ -0,0 +1,49 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Terrain colors of the map chunks under a minimap, captured on the world thread for one frame.
+ * Each tile holds a chunk's 32x32 colors as 0xRRGGBB, row-major by Z then X, and is never
+ * modified once built, so a frame samples it on a {@link HudRenderPool} thread without touching
+ * WorldMapManager or the tile cache. Tiles are shared between frames while their source is unchanged.
+ */
+public final class MinimapChunks {
+    public static final int CHUNK_SIZE = 32;
+    public static final int TILE_PIXELS = CHUNK_SIZE * CHUNK_SIZE;
+
+    private final int baseChunkX;
+    private final int baseChunkZ;
+    private final int span; // Chunks per side of the captured square
+    private final int[][] tiles; // Row-major by chunk Z then X; null = no colors for that chunk
+
+    /**
+     * @param tiles span x span tiles starting at the base chunk; the arrays are taken over, not copied
+     */
+    public MinimapChunks(int baseChunkX, int baseChunkZ, int span, @Nonnull int[][] tiles) {
+        if (tiles.length != span * span) {
+            throw new IllegalArgumentException("Expected " + span * span + " tiles, got " + tiles.length);
+        }
+        this.baseChunkX = baseChunkX;
+        this.baseChunkZ = baseChunkZ;
+        this.span = span;
+        this.tiles = tiles;
+    }
+
+    /**
+     * Terrain color at a world position.
+     * @return the color as 0xRRGGBB, or -1 if the chunk is outside the capture or has no colors yet
+     */
+    public int getColor(int worldX, int worldZ) {
+        int chunkX = Math.floorDiv(worldX, CHUNK_SIZE) - baseChunkX;
+        int chunkZ = Math.floorDiv(worldZ, CHUNK_SIZE) - baseChunkZ;
+        if (chunkX < 0 || chunkZ < 0 || chunkX >= span || chunkZ >= span) {
+            return -1;
+        }
+        int[] tile = tiles[chunkZ * span + chunkX];
+        if (tile == null) {
+            return -1;
+        }
+        return tile[Math.floorMod(worldZ, CHUNK_SIZE) * CHUNK_SIZE + Math.floorMod(worldX, CHUNK_SIZE)];
+    }
+}
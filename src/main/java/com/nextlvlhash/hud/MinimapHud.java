@@ -14,8 +14,12 @@ import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.hypixel.hytale.server.core.universe.world.worldmap.WorldMapManager;
+import com.nextlvlhash.storage.MinimapTileCache;
 import com.nextlvlhash.storage.WaypointStorage;
+import com.nextlvlhash.waypoint.GlobalWaypointLayer;
 import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointDistanceView;
+import com.nextlvlhash.waypoint.WaypointConfig;
 import com.nextlvlhash.waypoint.WaypointEffects;
 
 import javax.annotation.Nonnull;
@@ -24,7 +28,9 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages minimap rendering logic.
@@ -32,17 +38,34 @@ import java.util.List;
  */
 public class MinimapHud {
 
-    private static final int GRID_SIZE = 25;
-    private static final int HALF_GRID = GRID_SIZE / 2;
-    private static final double GRID_CENTER = GRID_SIZE / 2.0;
-    private static final double GRID_RADIUS = GRID_CENTER + 2.0;  // Expanded to show more of the square grid
-    private static final double GRID_RADIUS_SQ = GRID_RADIUS * GRID_RADIUS;
+    private static final int GRID_SIZE = MinimapLayout.GRID_SIZE;
+    private static final int HALF_GRID = MinimapLayout.HALF_GRID;
+    private static final int MAX_HIT_MARGIN = 16; // Covers the hit radius of the coarsest foveated ring
     private int minimapZoom = 2;  // Configurable zoom level (1-5)
-    private static final long MIN_UPDATE_MS = 500L;  // Faster updates (was 1000ms)
-    private static final int DEFAULT_COLOR_INT = 0x52; // 9-bit: (1<<6)|(2<<3)|2 = dark green
+    private MinimapLayout layout = MinimapLayout.LINEAR; // Pixel-to-world sampling layout
+    private ColorDepth colorDepth = ColorDepth.BITS_9; // Pixel color quantization
+    private MinimapTheme theme = MinimapTheme.DEFAULT; // Terrain color theme (lookup table)
+    private TimeBand timeBand = TimeBand.DAY; // Current time-of-day tint
+    private boolean nightTint = false;
+    public static final float YAW_THRESHOLD_DEGREES = 5.0f; // Turning less than this doesn't redraw the map
+    private static final long MAP_REFRESH_MS = 2000L;  // Re-sample terrain for async-loaded images even when idle
     private static final String DEFAULT_COLOR = "#244924"; // 6-digit hex for UI compatibility
     private static final String PLAYER_MARKER_COLOR = "#ffffff";
-    private static final int PLAYER_MARKER_COLOR_INT = 0x1ff; // 9-bit white (7,7,7)
+    private static final int PLAYER_MARKER_COLOR_INT = -2; // Outside every depth's index range
+    private static final int PIXEL_BUDGET_PER_TICK = 192; // Max pixel commands per progressive update
+    private static final int LARGE_MOVE_BLOCKS = 16;      // Position jump treated as a teleport
+    private static final float LARGE_TURN_DEGREES = 45f;  // Yaw change treated as a fast turn
+    private static final int STABILITY_SAMPLES = 2;       // Samples a new terrain color must persist for
+    private static final int PERCEPTUAL_THRESHOLD = 16000; // Weighted RGB distance that bypasses the filter (~2 green levels at 9-bit)
+    private static final AtomicLong TOTAL_SUPPRESSED_CHANGES = new AtomicLong();
+    private static final double VELOCITY_SMOOTHING = 0.4;     // EMA weight of the newest velocity sample
+    private static final long MIN_VELOCITY_SAMPLE_MS = 100L;   // Shorter intervals are too noisy to sample
+    private static final double MAX_TRACKED_SPEED = 80.0;      // Blocks/s; faster jumps are teleports
+    private static final double PREFETCH_MIN_SPEED = 8.0;      // Blocks/s; above sprinting (mounts, gliding, carts)
+    private static final long PREFETCH_LOOKAHEAD_MS = 2000L;   // How far ahead the path is predicted
+    private static final int PREFETCH_STEP_BLOCKS = 16;        // Spacing of predicted path samples
+    private static final int MAX_PREFETCH_CHUNKS_PER_TICK = 6; // Map image requests per update
+    private static final AtomicLong TOTAL_PREFETCHED_CHUNKS = new AtomicLong();
     
     // Arrow patterns for 8 directions (N, NE, E, SE, S, SW, W, NW)
     // Each pattern draws 3 dots in a triangular shape pointing in that direction
@@ -90,15 +113,13 @@ public class MinimapHud {
     private static final long WAYPOINT_EFFECT_INTERVAL_MS = 2000L;
     private static final int MAX_EFFECT_WAYPOINTS = 3;
     private static final double WAYPOINT_EFFECT_RADIUS = 192.0;
+    private static final int GLOBAL_COMPASS_RANGE = 4096; // Global waypoints further away stay off the compass
 
     // Minimap container dimensions
     private static final int MINIMAP_WIDTH = 256;
     private static final int MINIMAP_HEIGHT = 296;
     private static final int EDGE_MARGIN = 20; // Distance from screen edge
 
-    // Pre-computed visibility mask and pixel IDs
-    private static final boolean[] VISIBLE_MASK = new boolean[GRID_SIZE * GRID_SIZE];
-    
     // Cached rotation values
     private float lastYaw = Float.NaN;
     private double cachedCos = 0.0;
@@ -109,43 +130,85 @@ public class MinimapHud {
     }
 
     public void setMinimapZoom(int zoom) {
-        this.minimapZoom = Math.max(1, Math.min(5, zoom)); // Clamp to 1-5
+        this.minimapZoom = MinimapLayout.clampZoom(zoom);
     }
-    private static final String[] PIXEL_SELECTORS = new String[GRID_SIZE * GRID_SIZE];
-    private static final int VISIBLE_PIXEL_COUNT;
-    private static final int[] VISIBLE_INDICES;
-    static {
-        int count = 0;
-        for (int gridY = 0; gridY < GRID_SIZE; gridY++) {
-            for (int gridX = 0; gridX < GRID_SIZE; gridX++) {
-                double dx = Math.abs((gridX + 0.5) - GRID_CENTER) - 3;  // Expanded by 2 pixels to fill frame
-                double dy = Math.abs((gridY + 0.5) - GRID_CENTER) - 3;  // Expanded by 2 pixels to fill frame
-                if (dx < 0) dx = 0;
-                if (dy < 0) dy = 0;
-
-                int index = gridY * GRID_SIZE + gridX;
-                boolean visible = dx * dx + dy * dy <= GRID_RADIUS_SQ;
-                VISIBLE_MASK[index] = visible;
-
-                if (visible) {
-                    count++;
-                    PIXEL_SELECTORS[index] = "#MinimapContainer #MapGrid #P" +
-                        toBase36Pair(gridX) + toBase36Pair(gridY) + ".Background";
-                }
-            }
-        }
-        VISIBLE_PIXEL_COUNT = count;
-        VISIBLE_INDICES = new int[count];
-        int i = 0;
-        for (int idx = 0; idx < GRID_SIZE * GRID_SIZE; idx++) {
-            if (VISIBLE_MASK[idx]) {
-                VISIBLE_INDICES[i++] = idx;
-            }
-        }
+
+    /**
+     * Number of pixel color changes held back by the stability filter for this player.
+     */
+    public long getSuppressedChangeCount() {
+        return suppressedChanges;
+    }
+
+    /**
+     * Number of pixel color changes held back by the stability filter across all players.
+     */
+    public static long getTotalSuppressedChangeCount() {
+        return TOTAL_SUPPRESSED_CHANGES.get();
+    }
+
+    /**
+     * Smoothed horizontal speed in blocks per second.
+     */
+    public double getSpeed() {
+        return Math.sqrt(velocityX * velocityX + velocityZ * velocityZ);
+    }
+
+    /**
+     * Number of map chunks this player's minimap requested ahead of time while travelling fast.
+     */
+    public long getPrefetchedChunkCount() {
+        return prefetchedChunks;
+    }
+
+    /**
+     * Number of chunks prefetched for all players since startup.
+     */
+    public static long getTotalPrefetchedChunkCount() {
+        return TOTAL_PREFETCHED_CHUNKS.get();
+    }
+
+    @Nonnull
+    public MinimapLayout getLayout() {
+        return layout;
+    }
+
+    public void setLayout(@Nonnull MinimapLayout layout) {
+        this.layout = layout;
+    }
+
+    @Nonnull
+    public ColorDepth getColorDepth() {
+        return colorDepth;
+    }
+
+    public void setColorDepth(@Nonnull ColorDepth colorDepth) {
+        this.colorDepth = colorDepth;
+    }
+
+    @Nonnull
+    public MinimapTheme getTheme() {
+        return theme;
+    }
+
+    public void setTheme(@Nonnull MinimapTheme theme) {
+        this.theme = theme;
+    }
+
+    /**
+     * Picks the time-of-day tint band from world time (stays on DAY when night tint is off).
+     * A band change swaps the lookup table; the next map update diffs every pixel once.
+     */
+    public void applyTime(@Nonnull LocalDateTime dateTime) {
+        timeBand = nightTint ? TimeBand.fromDateTime(dateTime) : TimeBand.DAY;
     }
 
     private final int[] lastColorInts = new int[GRID_SIZE * GRID_SIZE];
-    private final String[] colorPalette = new String[512]; // 9-bit colors (8 levels per channel)
+    // Temporal stability filter: candidate color per pixel and how many samples it has persisted
+    private final int[] pendingColorInts = new int[GRID_SIZE * GRID_SIZE];
+    private final int[] pendingCounts = new int[GRID_SIZE * GRID_SIZE];
+    private final boolean[] markerPixels = new boolean[GRID_SIZE * GRID_SIZE]; // Pixel currently shows a waypoint
+    private long suppressedChanges = 0L;
     private final WaypointStorage waypointStorage;
     private final java.util.UUID playerUuid;
     private final int[] lastCompassX = new int[MAX_COMPASS_MARKERS];
@@ -156,9 +219,44 @@ public class MinimapHud {
     // If true, invert the minimap rotation direction (useful if map appears reversed)
     private boolean invertMapRotation = false;
 
+    // Progressive rendering: coarse pass after large changes, then center-out refinement, budgeted per tick
+    private boolean progressiveRendering = true;
+    private boolean refinePending = false;
+    private boolean refineCoarse = false; // Cursor is in the coarse order (else the center-out order)
+    private int refineCursor = 0; // Next position in the current order
+    private int lastRenderedZoom = -1;
+    private MinimapLayout lastRenderedLayout = null;
+    private ColorDepth lastRenderedDepth = null;
+    private int[] lastRenderedLut = null;
+    private boolean freshFrame = false; // Refining a frame after a large change - stability filter is off
+    private HudDegradation degradation = HudDegradation.FULL; // Set by the HUD watchdog for this world
+
     private int lastBlockX = Integer.MIN_VALUE;
     private int lastBlockZ = Integer.MIN_VALUE;
     private long lastUpdateMillis = 0L;
+
+    // Inputs read by observe() for the current tick
+    private boolean observed = false;
+    private Vector3d observedPos;
+    private float observedYaw = 0f;
+    private volatile boolean settingsPending = false;
+    private long lastWaypointVersion = -1L;
+    @Nullable
+    private List<Waypoint> visibleWaypoints = null;
+    private GlobalWaypointLayer globalLayer = GlobalWaypointLayer.EMPTY; // Shared, read through its index
+
+    // Smoothed horizontal velocity (blocks per second) for path prediction
+    private double velocityX = 0.0;
+    private double velocityZ = 0.0;
+    private double sampleX = Double.NaN;
+    private double sampleZ = Double.NaN;
+    private long sampleMillis = 0L;
+    private long prefetchedChunks = 0L;
+    private int lastPrefetchBlockX = Integer.MIN_VALUE;
+    private int lastPrefetchBlockZ = Integer.MIN_VALUE;
+
+    // Chunk colors captured for frames, by chunk key; world thread only
+    private final HashMap<Long, ChunkTile> chunkTiles = new HashMap<>();
     private int lastDay = -1;
     private int lastCoordX = Integer.MIN_VALUE;
     private int lastCoordY = Integer.MIN_VALUE;
@@ -170,6 +268,7 @@ public class MinimapHud {
 
     public MinimapHud(@Nullable WaypointStorage waypointStorage, @Nullable java.util.UUID playerUuid) {
         Arrays.fill(lastColorInts, -1);
+        Arrays.fill(pendingColorInts, -1);
         Arrays.fill(lastCompassX, Integer.MIN_VALUE);
         Arrays.fill(lastCompassY, Integer.MIN_VALUE);
         Arrays.fill(lastCompassVisible, false);
@@ -177,9 +276,14 @@ public class MinimapHud {
         this.waypointStorage = waypointStorage;
         this.playerUuid = playerUuid;
         
-        // Load zoom level from player config
+        // Load zoom level, sampling layout and color depth from player config
         if (waypointStorage != null && playerUuid != null) {
-            this.minimapZoom = waypointStorage.getWaypointConfig(playerUuid).getMinimapZoom();
+            WaypointConfig config = waypointStorage.getWaypointConfig(playerUuid);
+            this.minimapZoom = config.getMinimapZoom();
+            this.layout = config.getMinimapLayout();
+            this.colorDepth = config.getColorDepth(waypointStorage.getServerConfig().getDefaultColorDepth());
+            this.theme = config.getMinimapTheme();
+            this.nightTint = waypointStorage.getServerConfig().isNightTint();
         }
     }
 @SuppressWarnings("null")
@@ -280,14 +384,13 @@ public class MinimapHud {
     }
 
     /**
-     * Updates minimap pixels and coordinates.
-     * Adds changes to the provided UICommandBuilder.
-     * @return true if any changes were made
+     * Reads the player's position, yaw, waypoint version and pending settings,
+     * and marks the bus for every input that changed. Runs before the bus is drained.
+     * @return false if the player entity is gone
      */
-    public boolean updateMap(@Nonnull UICommandBuilder builder,
-                             @Nonnull World world,
-                             @Nonnull Ref<EntityStore> storeRef,
-                             @Nonnull PlayerRef playerRef) {
+    public boolean observe(@Nonnull Ref<EntityStore> storeRef,
+                           @Nonnull PlayerRef playerRef,
+                           @Nonnull HudInvalidationBus bus) {
         Store<EntityStore> store = storeRef.getStore();
         Ref<EntityStore> entityRef = playerRef.getReference();
         // Guard against player disconnection - entityRef becomes null when player leaves
@@ -300,10 +403,11 @@ public class MinimapHud {
             return false;
         }
 
-        boolean changed = false;
+        // Copy - the transform's vector keeps changing while a frame is computed off the world thread
+        Vector3d livePos = transform.getPosition();
+        observedPos = new Vector3d(livePos.getX(), livePos.getY(), livePos.getZ());
+        updateVelocity(observedPos, System.currentTimeMillis());
 
-        Vector3d pos = transform.getPosition();
-        
         // Get player head rotation (yaw) for facing direction
         @SuppressWarnings("null")
         HeadRotation headRotation = store.getComponent(entityRef, HeadRotation.getComponentType());
@@ -312,67 +416,500 @@ public class MinimapHud {
             Vector3f headRot = headRotation.getRotation();
             yaw = headRot.getY(); // Y component is yaw (horizontal rotation)
         }
-        
+
+        // Convert yaw (radians) to degrees for map rotation
+        // In Hytale: yaw is in radians, need to adjust for coordinate system
+        float yawDegrees = (float) Math.toDegrees(yaw);
+        observedYaw = ((yawDegrees + 360) % 360);
+
+        int blockX = (int) Math.floor(observedPos.getX());
+        int blockY = (int) Math.floor(observedPos.getY());
+        int blockZ = (int) Math.floor(observedPos.getZ());
+        // Usually already marked by HudMovementFilter; this catches teleports and server-side moves
+        if ((blockX != lastBlockX || blockZ != lastBlockZ || blockY != lastCoordY
+                || Math.abs(observedYaw - lastYawDegrees) > YAW_THRESHOLD_DEGREES)
+                && !bus.isMarked(HudInvalidationBus.Source.MOVEMENT)) {
+            bus.mark(HudInvalidationBus.Source.MOVEMENT);
+        }
+
+        if (settingsPending) {
+            settingsPending = false;
+            reloadSettings();
+        }
+
+        // Waypoint list is only re-filtered when storage wrote a new config version
+        if (waypointStorage != null) {
+            WaypointConfig config = waypointStorage.getWaypointConfig(playerRef.getUuid());
+            long version = config.getVersion();
+            if (version != lastWaypointVersion) {
+                lastWaypointVersion = version;
+                visibleWaypoints = snapshotWaypoints(config.getVisibleWaypoints());
+                bus.mark(HudInvalidationBus.Source.WAYPOINTS);
+            }
+            // Global waypoints: storage publishes a new shared layer on every write
+            GlobalWaypointLayer layer = waypointStorage.getGlobalLayer();
+            if (layer != globalLayer) {
+                globalLayer = layer;
+                bus.mark(HudInvalidationBus.Source.WAYPOINTS);
+            }
+        }
+
+        if (System.currentTimeMillis() - lastUpdateMillis >= MAP_REFRESH_MS) {
+            bus.mark(HudInvalidationBus.Source.MAP_REFRESH);
+        }
+
+        observed = true;
+        return true;
+    }
+
+    /**
+     * Detached, unmodifiable copies of the visible waypoints. Edits mutate the stored waypoints in place,
+     * so frames computed off the world thread must not see them; this runs only when the version changes.
+     */
+    @Nonnull
+    private static List<Waypoint> snapshotWaypoints(@Nonnull List<Waypoint> waypoints) {
+        List<Waypoint> copies = new ArrayList<>(waypoints.size());
+        for (Waypoint wp : waypoints) {
+            copies.add(wp.copy());
+        }
+        return java.util.Collections.unmodifiableList(copies);
+    }
+
+    /**
+     * Captures what the last {@link #observe} read, plus the terrain colors around the player, as an
+     * immutable frame. Runs on the world thread - the only place the minimap reads WorldMapManager and
+     * the tile cache - and requests the map images the minimap is missing or about to scroll onto.
+     * @return null if nothing was observed yet
+     */
+    @Nullable
+    public HudFrame snapshot(@Nonnull LocalDateTime dateTime, @Nonnull World world) {
+        if (!observed) {
+            return null;
+        }
+        MinimapChunks chunks = null;
+        WorldMapManager mapManager = world.getWorldMapManager();
+        if (mapManager != null && degradation.showsPixels()) {
+            MinimapTileCache tileCache = MinimapTileCache.forWorld(world);
+            int blockX = (int) Math.floor(observedPos.getX());
+            int blockZ = (int) Math.floor(observedPos.getZ());
+            chunks = captureChunks(mapManager, tileCache, blockX, blockZ);
+
+            // Fast travel: fetch what the map is about to scroll onto
+            if ((blockX != lastPrefetchBlockX || blockZ != lastPrefetchBlockZ) && !degradation.isCoarseOnly()) {
+                lastPrefetchBlockX = blockX;
+                lastPrefetchBlockZ = blockZ;
+                prefetchAlongPath(mapManager, tileCache, observedPos);
+            }
+        }
+        return new HudFrame(dateTime, chunks, observedPos, observedYaw, visibleWaypoints, globalLayer);
+    }
+
+    /**
+     * Colors of one chunk, the map image they were read from (null if read from the tile cache)
+     * and the tile cache generation they match.
+     */
+    private static final class ChunkTile {
+        @Nullable
+        private final MapImage image;
+        private final int[] colors;
+        private final long generation;
+
+        private ChunkTile(@Nullable MapImage image, @Nonnull int[] colors, long generation) {
+            this.image = image;
+            this.colors = colors;
+            this.generation = generation;
+        }
+    }
+
+    /**
+     * Collects the colors of every chunk the minimap can sample at the current zoom, in any rotation.
+     * Loaded map images are converted (and written to the tile cache) once per image; chunks whose image
+     * is not in memory use the tile cache and are requested. Tiles are reused until their image changes
+     * or a block change invalidates the chunk.
+     */
+    @Nonnull
+    private MinimapChunks captureChunks(@Nonnull WorldMapManager mapManager,
+                                        @Nullable MinimapTileCache tileCache,
+                                        int blockX, int blockZ) {
+        // Sample offsets reach the visible radius along the axes and up to sqrt(2) times it in the corners
+        int reach = (int) Math.ceil(layout.getVisibleRadius(minimapZoom) * Math.sqrt(2.0)) + 1;
+        int minChunkX = Math.floorDiv(blockX - reach, MinimapChunks.CHUNK_SIZE);
+        int minChunkZ = Math.floorDiv(blockZ - reach, MinimapChunks.CHUNK_SIZE);
+        int span = Math.max(Math.floorDiv(blockX + reach, MinimapChunks.CHUNK_SIZE) - minChunkX,
+                Math.floorDiv(blockZ + reach, MinimapChunks.CHUNK_SIZE) - minChunkZ) + 1;
+
+        int[][] tiles = new int[span * span][];
+        for (int z = 0; z < span; z++) {
+            for (int x = 0; x < span; x++) {
+                int chunkX = minChunkX + x;
+                int chunkZ = minChunkZ + z;
+                long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+                ChunkTile tile = chunkTiles.get(key);
+                long generation = tileCache != null ? tileCache.getGeneration(chunkX, chunkZ) : 0L;
+                // Invalidated or re-stored since - rebuild from the current image or cache
+                boolean outdated = tile != null && tile.generation != generation;
+                MapImage image = mapManager.getImageIfInMemory(chunkX, chunkZ);
+                if (image != null && image.data != null && image.width > 0 && image.height > 0
+                        && (tileCache == null || !tileCache.isInvalidated(chunkX, chunkZ, image))) {
+                    if (tile == null || outdated || tile.image != image) {
+                        if (tileCache != null) {
+                            tileCache.store(chunkX, chunkZ, image);
+                            generation = tileCache.getGeneration(chunkX, chunkZ);
+                        }
+                        tile = new ChunkTile(image, colorsOf(image), generation);
+                        chunkTiles.put(key, tile);
+                    }
+                } else {
+                    if (tileCache != null) {
+                        // Throttled request - the image is cached once it arrives
+                        tileCache.requestImage(mapManager, chunkX, chunkZ);
+                        // An invalidated chunk keeps its last colors until the regenerated image arrives
+                        if (tile == null || outdated) {
+                            int[] cached = tileCache.copyChunk(chunkX, chunkZ);
+                            if (cached != null) {
+                                tile = new ChunkTile(null, cached, generation);
+                                chunkTiles.put(key, tile);
+                            }
+                        }
+                    } else {
+                        mapManager.getImageAsync(chunkX, chunkZ);
+                    }
+                }
+                tiles[z * span + x] = tile != null ? tile.colors : null;
+            }
+        }
+
+        // Forget tiles the minimap moved away from
+        if (chunkTiles.size() > tiles.length * 2) {
+            int maxChunkX = minChunkX + span - 1;
+            int maxChunkZ = minChunkZ + span - 1;
+            chunkTiles.keySet().removeIf(key -> {
+                int chunkX = (int) (key >> 32);
+                int chunkZ = (int) (long) key;
+                return chunkX < minChunkX || chunkX > maxChunkX || chunkZ < minChunkZ || chunkZ > maxChunkZ;
+            });
+        }
+        return new MinimapChunks(minChunkX, minChunkZ, span, tiles);
+    }
+
+    /**
+     * A map image scaled to 32x32 colors (0xRRGGBB).
+     */
+    @Nonnull
+    private static int[] colorsOf(@Nonnull MapImage image) {
+        int size = MinimapChunks.CHUNK_SIZE;
+        int[] colors = new int[MinimapChunks.TILE_PIXELS];
+        for (int localZ = 0; localZ < size; localZ++) {
+            int imgZ = Math.max(0, Math.min(image.height - 1, localZ * image.height / size));
+            for (int localX = 0; localX < size; localX++) {
+                int imgX = Math.max(0, Math.min(image.width - 1, localX * image.width / size));
+                int idx = imgZ * image.width + imgX;
+                colors[localZ * size + localX] = idx < image.data.length ? image.data[idx] >>> 8 : MinimapSampler.DEFAULT_RGB; // RGBA -> RGB
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Spawns particle effects at nearby waypoints (throttled). Needs the entity store, so it stays
+     * on the world thread while the rest of the frame may be computed elsewhere.
+     */
+    public void spawnEffects(@Nonnull Ref<EntityStore> storeRef) {
+        if (observed && degradation.showsPixels()) {
+            List<Waypoint> nearby = withGlobals(visibleWaypoints, globalLayer,
+                    (int) Math.floor(observedPos.getX()), (int) Math.floor(observedPos.getZ()), (int) WAYPOINT_EFFECT_RADIUS);
+            maybeSpawnWaypointEffects(nearby, observedPos, storeRef.getStore(), storeRef);
+        }
+    }
+
+    /**
+     * Personal waypoints plus the global waypoints within range of a position.
+     * Returns the personal list itself when no global waypoint is in range.
+     */
+    @Nullable
+    private static List<Waypoint> withGlobals(@Nullable List<Waypoint> personal,
+                                              @Nonnull GlobalWaypointLayer layer,
+                                              int blockX, int blockZ, int range) {
+        if (layer.isEmpty()) {
+            return personal;
+        }
+        List<Waypoint> globals = layer.queryAround(blockX, blockZ, range);
+        if (globals.isEmpty()) {
+            return personal;
+        }
+        if (personal == null || personal.isEmpty()) {
+            return globals;
+        }
+        List<Waypoint> combined = new ArrayList<>(personal.size() + globals.size());
+        combined.addAll(personal);
+        combined.addAll(globals);
+        return combined;
+    }
+
+    /**
+     * Takes over the state of the minimap this one replaces that is still valid for a rebuilt
+     * UI document: waypoint list and version, velocity estimate and counters.
+     * Pixel, coordinate and compass diff state describes the old document and is not copied.
+     */
+    void inheritFrom(@Nonnull MinimapHud previous) {
+        this.visibleWaypoints = previous.visibleWaypoints;
+        this.globalLayer = previous.globalLayer;
+        this.lastWaypointVersion = previous.lastWaypointVersion;
+        this.velocityX = previous.velocityX;
+        this.velocityZ = previous.velocityZ;
+        this.sampleX = previous.sampleX;
+        this.sampleZ = previous.sampleZ;
+        this.sampleMillis = previous.sampleMillis;
+        this.suppressedChanges = previous.suppressedChanges;
+        this.prefetchedChunks = previous.prefetchedChunks;
+        this.timeBand = previous.timeBand;
+    }
+
+    /**
+     * Applies the world's HUD level. Returning from a level without pixels redraws a fresh frame;
+     * returning from coarse-only passes refines the coarse frame.
+     */
+    public void setDegradation(@Nonnull HudDegradation level) {
+        if (level == degradation) {
+            return;
+        }
+        if (level.showsPixels() && !degradation.showsPixels()) {
+            lastBlockX = Integer.MIN_VALUE; // Frozen pixels are stale - large change
+            lastBlockZ = Integer.MIN_VALUE;
+        } else if (!level.isCoarseOnly() && degradation.isCoarseOnly()) {
+            // Coarse pixels are current - refine the rest
+            refinePending = true;
+            refineCoarse = false;
+            refineCursor = 0;
+        }
+        degradation = level;
+    }
+
+    /**
+     * Resets position tracking after a world change so the next pass redraws a fresh frame
+     * and the velocity estimate doesn't see the jump.
+     */
+    public void onWorldChanged() {
+        lastBlockX = Integer.MIN_VALUE;
+        lastBlockZ = Integer.MIN_VALUE;
+        lastPrefetchBlockX = Integer.MIN_VALUE;
+        lastPrefetchBlockZ = Integer.MIN_VALUE;
+        chunkTiles.clear();
+        velocityX = 0.0;
+        velocityZ = 0.0;
+        sampleX = Double.NaN;
+        sampleZ = Double.NaN;
+    }
+
+    /**
+     * Folds the movement since the previous sample into the smoothed velocity.
+     * Teleports and long gaps between samples reset it instead.
+     */
+    private void updateVelocity(@Nonnull Vector3d pos, long now) {
+        if (Double.isNaN(sampleX)) {
+            sampleX = pos.getX();
+            sampleZ = pos.getZ();
+            sampleMillis = now;
+            return;
+        }
+        long elapsed = now - sampleMillis;
+        if (elapsed < MIN_VELOCITY_SAMPLE_MS) {
+            return; // Keep the older sample as the anchor
+        }
+
+        double seconds = elapsed / 1000.0;
+        double vx = (pos.getX() - sampleX) / seconds;
+        double vz = (pos.getZ() - sampleZ) / seconds;
+        sampleX = pos.getX();
+        sampleZ = pos.getZ();
+        sampleMillis = now;
+
+        if (elapsed > PREFETCH_LOOKAHEAD_MS || vx * vx + vz * vz > MAX_TRACKED_SPEED * MAX_TRACKED_SPEED) {
+            velocityX = 0.0;
+            velocityZ = 0.0;
+            return;
+        }
+        velocityX += VELOCITY_SMOOTHING * (vx - velocityX);
+        velocityZ += VELOCITY_SMOOTHING * (vz - velocityZ);
+    }
+
+    /**
+     * Requests the map images the minimap's leading edge will cover along the predicted path,
+     * nearest first, so they are in memory (or in the tile cache) before the map scrolls onto them.
+     * Only runs while travelling faster than {@link #PREFETCH_MIN_SPEED}.
+     */
+    @SuppressWarnings("null")
+    private void prefetchAlongPath(@Nonnull WorldMapManager mapManager,
+                                   @Nullable MinimapTileCache tileCache,
+                                   @Nonnull Vector3d pos) {
+        double speed = getSpeed();
+        if (tileCache == null || speed < PREFETCH_MIN_SPEED) {
+            return;
+        }
+        double dirX = velocityX / speed;
+        double dirZ = velocityZ / speed;
+        double radius = layout.getVisibleRadius(minimapZoom);
+        double distance = speed * PREFETCH_LOOKAHEAD_MS / 1000.0;
+
+        long[] requested = new long[MAX_PREFETCH_CHUNKS_PER_TICK];
+        int count = 0;
+        // Walk the path; at each step sample the leading edge across the minimap's width
+        for (double travelled = 0; travelled <= distance && count < requested.length; travelled += PREFETCH_STEP_BLOCKS) {
+            double edgeX = pos.getX() + dirX * (travelled + radius);
+            double edgeZ = pos.getZ() + dirZ * (travelled + radius);
+            for (int side = -2; side <= 2 && count < requested.length; side++) {
+                // Perpendicular offset: -radius .. +radius
+                double offset = radius * side / 2.0;
+                int chunkX = Math.floorDiv((int) Math.floor(edgeX - dirZ * offset), 32);
+                int chunkZ = Math.floorDiv((int) Math.floor(edgeZ + dirX * offset), 32);
+                long key = ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+                boolean seen = false;
+                for (int i = 0; i < count; i++) {
+                    if (requested[i] == key) {
+                        seen = true;
+                        break;
+                    }
+                }
+                if (seen || mapManager.getImageIfInMemory(chunkX, chunkZ) != null) {
+                    continue;
+                }
+                // Throttled per chunk by the tile cache; the image is written through when it arrives
+                tileCache.requestImage(mapManager, chunkX, chunkZ);
+                requested[count++] = key;
+            }
+        }
+        prefetchedChunks += count;
+        TOTAL_PREFETCHED_CHUNKS.addAndGet(count);
+    }
+
+    /**
+     * Flags minimap settings for reload on the next tick (safe to call from any thread).
+     */
+    public void onSettingsChanged() {
+        settingsPending = true;
+    }
+
+    /**
+     * Re-reads zoom, layout, color depth and theme from the player config.
+     */
+    private void reloadSettings() {
+        if (waypointStorage == null || playerUuid == null) {
+            return;
+        }
+        WaypointConfig config = waypointStorage.getWaypointConfig(playerUuid);
+        setMinimapZoom(config.getMinimapZoom());
+        this.layout = config.getMinimapLayout();
+        this.colorDepth = config.getColorDepth(waypointStorage.getServerConfig().getDefaultColorDepth());
+        this.theme = config.getMinimapTheme();
+    }
+
+    /**
+     * Updates the minimap elements whose inputs changed.
+     * Adds changes to the provided UICommandBuilder. Reads only the frame and this minimap's own state -
+     * never WorldMapManager or the tile cache - so it may run off the world thread as long as one frame
+     * per HUD is computed at a time.
+     * @param frame inputs captured by {@link #snapshot}
+     * @param dirty element bits drained from the {@link HudInvalidationBus}
+     * @return true if any changes were made
+     */
+    public boolean updateMap(@Nonnull UICommandBuilder builder,
+                             @Nonnull HudFrame frame,
+                             int dirty) {
+        boolean changed = false;
+
+        Vector3d pos = frame.getPosition();
+        float normalizedYaw = frame.getYawDegrees();
+        List<Waypoint> waypoints = frame.getWaypoints();
         int blockX = (int) Math.floor(pos.getX());
         int blockY = (int) Math.floor(pos.getY());
         int blockZ = (int) Math.floor(pos.getZ());
         long now = System.currentTimeMillis();
 
-        // Convert yaw (radians) to degrees for map rotation
-        // In Hytale: yaw is in radians, need to adjust for coordinate system
-        float yawDegrees = (float) Math.toDegrees(yaw);
-        float normalizedYaw = ((yawDegrees + 360) % 360);
-        
         // Player marker always points north (fixed), map rotates instead
         int arrowDirection = 0; // Always north
 
         boolean positionChanged = blockX != lastBlockX || blockZ != lastBlockZ;
         // Track rotation changes for map redraw
-        boolean rotationChanged = Math.abs(normalizedYaw - lastYawDegrees) > 5.0f; // 5 degree threshold
+        boolean rotationChanged = Math.abs(normalizedYaw - lastYawDegrees) > YAW_THRESHOLD_DEGREES;
         boolean directionChanged = arrowDirection != lastArrowDirection;
-        boolean timeToUpdate = (now - lastUpdateMillis) >= MIN_UPDATE_MS;
-
-        List<Waypoint> visibleWaypoints = null;
-        if (waypointStorage != null) {
-            visibleWaypoints = waypointStorage.getWaypointConfig(playerRef.getUuid()).getVisibleWaypoints();
+        boolean depthChanged = colorDepth != lastRenderedDepth;
+        boolean viewChanged = minimapZoom != lastRenderedZoom || layout != lastRenderedLayout || depthChanged;
+        if (depthChanged) {
+            // Color indices from another depth mode can't be compared - redraw everything
+            Arrays.fill(lastColorInts, -1);
+            Arrays.fill(pendingColorInts, -1);
+            Arrays.fill(pendingCounts, 0);
+        }
+        // Teleports, fast turns and zoom/layout switches would resend the whole grid at once
+        boolean largeChange = lastBlockX == Integer.MIN_VALUE
+                || viewChanged
+                || Math.abs(blockX - lastBlockX) + Math.abs(blockZ - lastBlockZ) > LARGE_MOVE_BLOCKS
+                || angleDelta(normalizedYaw, lastYawDegrees) > LARGE_TURN_DEGREES;
+        // Theme or time band swap: same samples, different output colors - one full diff pass
+        int[] themeLut = theme.getLut(timeBand, colorDepth);
+        boolean paletteChanged = themeLut != lastRenderedLut;
+        if (paletteChanged && !largeChange) {
+            freshFrame = true;
         }
+        boolean frameMoved = positionChanged || rotationChanged || viewChanged || paletteChanged;
 
-        if (positionChanged || rotationChanged || directionChanged || timeToUpdate) {
+        boolean pixelsDirty = (dirty & HudInvalidationBus.PIXELS) != 0;
+        if (degradation.showsPixels()
+                && (pixelsDirty || directionChanged || viewChanged || paletteChanged || refinePending)) {
             lastBlockX = blockX;
             lastBlockZ = blockZ;
             lastArrowDirection = arrowDirection;
             lastYawDegrees = normalizedYaw;
             lastUpdateMillis = now;
+            lastRenderedZoom = minimapZoom;
+            lastRenderedLayout = layout;
+            lastRenderedDepth = colorDepth;
+            lastRenderedLut = themeLut;
+
+            // Global waypoints only matter where the minimap can show them (plus the widest hit radius)
+            List<Waypoint> mapWaypoints = withGlobals(waypoints, frame.getGlobalLayer(), blockX, blockZ,
+                    layout.getVisibleRadius(minimapZoom) + MAX_HIT_MARGIN);
+            changed |= updateMapPixels(builder, frame.getChunks(),
+                    blockX, blockZ, arrowDirection, directionChanged,
+                    normalizedYaw, mapWaypoints, themeLut, largeChange, frameMoved);
+        }
 
-            changed |= updateMapPixels(builder, world.getWorldMapManager(), blockX, blockZ, arrowDirection, directionChanged, normalizedYaw, playerRef, visibleWaypoints);
-
-            // Update coordinates only if changed
-            if (blockX != lastCoordX || blockY != lastCoordY || blockZ != lastCoordZ) {
-                builder.set("#MinimapCoords.Text", "X: " + blockX + "  Y: " + blockY + "  Z: " + blockZ);
-                lastCoordX = blockX;
-                lastCoordY = blockY;
-                lastCoordZ = blockZ;
-                changed = true;
-            }
+        // Update coordinates only if changed
+        if ((dirty & HudInvalidationBus.COORDS) != 0
+                && (blockX != lastCoordX || blockY != lastCoordY || blockZ != lastCoordZ)) {
+            builder.set("#MinimapCoords.Text", "X: " + blockX + "  Y: " + blockY + "  Z: " + blockZ);
+            lastCoordX = blockX;
+            lastCoordY = blockY;
+            lastCoordZ = blockZ;
+            changed = true;
         }
 
-        changed |= updateCompassRing(builder, pos, normalizedYaw, visibleWaypoints);
-        maybeSpawnWaypointEffects(visibleWaypoints, pos, store, storeRef);
+        if ((dirty & HudInvalidationBus.COMPASS) != 0) {
+            // The session's nearest-first ranking saves sorting every waypoint on each frame
+            WaypointDistanceView.Ranking ranking = frame.getRanking();
+            List<Waypoint> compassWaypoints = ranking != null
+                    ? nearestOffMap(ranking, blockX, blockZ)
+                    : nearestOffMap(withGlobals(waypoints, frame.getGlobalLayer(), blockX, blockZ, GLOBAL_COMPASS_RANGE),
+                            blockX, blockZ);
+            changed |= updateCompassRing(builder, pos, normalizedYaw, compassWaypoints);
+        }
 
         return changed;
     }
 
     @SuppressWarnings("null")
     private boolean updateMapPixels(@Nonnull UICommandBuilder builder,
-                                    WorldMapManager mapManager,
+                                    @Nullable MinimapChunks chunks,
                                     int playerX,
                                     int playerZ,
                                     int arrowDirection,
                                     boolean directionChanged,
                                     float yawDegrees,
-                                    @Nonnull PlayerRef playerRef,
-                                    @Nullable List<Waypoint> waypoints) {
-        if (mapManager == null) {
+                                    @Nullable List<Waypoint> waypoints,
+                                    @Nonnull int[] themeLut,
+                                    boolean largeChange,
+                                    boolean frameMoved) {
+        if (chunks == null) {
             return false;
         }
 
@@ -397,6 +934,15 @@ public class MinimapHud {
         }
         lastArrowIndices = arrowIndices; // Store for next update
 
+        // Player arrow marker (white) - always points north, sent ahead of any budgeted pass
+        for (Integer arrowIndex : arrowIndices) {
+            if (lastColorInts[arrowIndex] != PLAYER_MARKER_COLOR_INT) {
+                lastColorInts[arrowIndex] = PLAYER_MARKER_COLOR_INT;
+                builder.set(layout.getPixelSelectors()[arrowIndex], PLAYER_MARKER_COLOR);
+                changed = true;
+            }
+        }
+
         // Cache rotation values if yaw changed (avoid recomputing trig functions for every pixel)
         if (yawDegrees != lastYaw) {
             double radians = Math.toRadians(yawDegrees + 180.0);
@@ -406,72 +952,141 @@ public class MinimapHud {
             lastYaw = yawDegrees;
         }
 
-        for (int i = 0; i < VISIBLE_PIXEL_COUNT; i++) {
-            int index = VISIBLE_INDICES[i];
-            int gridX = index % GRID_SIZE;
-            int gridY = index / GRID_SIZE;
-
-            int colorInt;
-            boolean isArrowPixel = arrowIndices.contains(index);
-            
-            if (isArrowPixel) {
-                // Player arrow marker (white) - always points north
-                colorInt = PLAYER_MARKER_COLOR_INT;
-            } else {
-                // Rotate the sampling coordinates based on player yaw + 180 degrees (map rotates, player stays north)
-                // Use cached trig values to avoid recomputing for every pixel
-                double dx = (gridX - HALF_GRID) * minimapZoom;
-                double dz = -(gridY - HALF_GRID) * minimapZoom; // Negate Z to fix forward = up
-                // Rotate point around center using cached values
-                double rotatedX = dx * cachedCos - dz * cachedSin;
-                double rotatedZ = dx * cachedSin + dz * cachedCos;
-                int worldX = playerX + (int) Math.round(rotatedX);
-                int worldZ = playerZ + (int) Math.round(rotatedZ);
-
-                // Check if there's a waypoint at this position
-                String waypointColor = getWaypointAtPosition(waypoints, worldX, worldZ);
-                if (waypointColor != null) {
-                    // Waypoint marker color
-                    colorInt = hexToInt(waypointColor);
-                } else {
-                    // Terrain color
-                    colorInt = sampleMapColorInt(mapManager, worldX, worldZ);
+        // Sampling tables for the current layout and zoom
+        int[] visibleIndices = layout.getVisibleIndices();
+        String[] pixelSelectors = layout.getPixelSelectors();
+        MinimapSampler sampler = new MinimapSampler(chunks, waypoints, layout, minimapZoom, colorDepth, themeLut,
+                playerX, playerZ, cachedCos, cachedSin);
+
+        // Pick where this tick starts; every progressive tick sends at most PIXEL_BUDGET_PER_TICK pixels:
+        // - large change, or the frame moved while refining: coarse pass (every second pixel) from the start
+        // - refining a still frame: continue from the cursor (coarse pass, then center-out)
+        // - otherwise: center-out diff pass; if it runs out of budget, refinement continues next tick
+        boolean coarseOnly = degradation.isCoarseOnly();
+        boolean refines = progressiveRendering && !coarseOnly; // Coarse pass is followed by center-out
+        int budget = progressiveRendering || coarseOnly ? PIXEL_BUDGET_PER_TICK : Integer.MAX_VALUE;
+        boolean coarse;
+        int position;
+        if (!progressiveRendering && !coarseOnly) {
+            coarse = false;
+            position = 0;
+        } else if (largeChange || (refinePending && frameMoved)) {
+            coarse = true;
+            position = 0;
+        } else if (refinePending) {
+            coarse = refineCoarse;
+            position = refineCursor;
+        } else {
+            coarse = coarseOnly;
+            position = 0;
+        }
+        int[] order = coarse ? layout.getCoarseOrder() : layout.getCenterOutOrder();
+
+        if (largeChange) {
+            freshFrame = true;
+        }
+
+        int sent = 0;
+        while (sent < budget) {
+            if (position >= order.length) {
+                if (!coarse || !refines) {
+                    break;
                 }
+                // Coarse pass done - refine the remaining pixels center-out
+                coarse = false;
+                order = layout.getCenterOutOrder();
+                position = 0;
+            }
+            int i = order[position++];
+            int index = visibleIndices[i];
+            if (arrowIndices.contains(index)) {
+                continue;
             }
 
-            if (colorInt != lastColorInts[index]) {
-                lastColorInts[index] = colorInt;
-                String colorStr = isArrowPixel ? PLAYER_MARKER_COLOR : intToHex(colorInt);
-                builder.set(PIXEL_SELECTORS[index], colorStr);
-                changed = true;
+            int sample = sampler.sample(i);
+            int colorInt = MinimapSampler.colorOf(sample);
+            boolean isMarker = MinimapSampler.isMarker(sample);
+
+            if (colorInt == lastColorInts[index]) {
+                pendingCounts[index] = 0; // Back to the shown color - drop the candidate
+                continue;
+            }
+
+            // Waypoint pixels (and pixels a waypoint just left) skip the stability filter
+            boolean immediate = freshFrame || isMarker || markerPixels[index] || lastColorInts[index] < 0;
+            if (!immediate && !acceptColorChange(index, colorInt)) {
+                suppressedChanges++;
+                TOTAL_SUPPRESSED_CHANGES.incrementAndGet();
+                continue;
             }
+
+            lastColorInts[index] = colorInt;
+            markerPixels[index] = isMarker;
+            pendingCounts[index] = 0;
+            builder.set(pixelSelectors[index], colorDepth.toHex(colorInt, DEFAULT_COLOR));
+            changed = true;
+            sent++;
+        }
+
+        if (position < order.length || (coarse && refines)) {
+            // Out of budget - pick up here next tick
+            refinePending = true;
+            refineCoarse = coarse && position < order.length;
+            refineCursor = position < order.length ? position : 0;
+        } else {
+            refinePending = false;
+            refineCoarse = false;
+            refineCursor = 0;
+            freshFrame = false;
         }
 
         return changed;
     }
 
-    private boolean updateCompassRing(@Nonnull UICommandBuilder builder,
-                                      @Nonnull Vector3d playerPos,
-                                      float yawDegrees,
-                                      @Nullable List<Waypoint> waypoints) {
-        if (waypoints == null || waypoints.isEmpty()) {
-            return hideAllCompassMarkers(builder);
+    /**
+     * Hysteresis for terrain pixels: a new color is accepted once it persists for
+     * {@link #STABILITY_SAMPLES} samples, or right away if it is perceptually far from the shown one.
+     * Suppresses boundary pixels toggling between two colors on small moves and turns.
+     */
+    private boolean acceptColorChange(int index, int colorInt) {
+        if (colorDepth.distance(lastColorInts[index], colorInt) > PERCEPTUAL_THRESHOLD) {
+            return true;
+        }
+        if (pendingColorInts[index] == colorInt) {
+            return ++pendingCounts[index] >= STABILITY_SAMPLES;
         }
+        pendingColorInts[index] = colorInt;
+        pendingCounts[index] = 1;
+        return false;
+    }
 
-        int playerX = (int) Math.floor(playerPos.getX());
-        int playerZ = (int) Math.floor(playerPos.getZ());
-        boolean changed = false;
 
+    /**
+     * Smallest absolute difference between two angles in degrees.
+     */
+    private static float angleDelta(float a, float b) {
+        float d = Math.abs(a - b) % 360f;
+        return d > 180f ? 360f - d : d;
+    }
+
+    /**
+     * Up to {@link #MAX_COMPASS_MARKERS} visible waypoints beyond the minimap's range, nearest first,
+     * sorted here (frames prepared without a session ranking).
+     */
+    @Nonnull
+    private List<Waypoint> nearestOffMap(@Nullable List<Waypoint> waypoints, int playerX, int playerZ) {
+        if (waypoints == null || waypoints.isEmpty()) {
+            return java.util.Collections.emptyList();
+        }
         // Calculate the minimap visible range (half the minimap width in world units)
-        // GRID_SIZE is 25 pixels, each pixel covers minimapZoom blocks
-        // So visible radius varies with zoom level
-        int minimapVisibleRadius = (GRID_SIZE / 2) * minimapZoom;
+        // The layout knows how far its outermost ring reaches at the current zoom level
+        int minimapVisibleRadius = layout.getVisibleRadius(minimapZoom);
 
         // Filter to only waypoints that are NOT visible on the minimap
         List<Waypoint> offMapWaypoints = new ArrayList<>();
         for (Waypoint wp : waypoints) {
             if (!wp.isVisible()) continue; // Skip hidden waypoints
-            
+
             double distance = wp.distance2DTo(playerX, playerZ);
             // Only add to compass if beyond minimap visible range
             if (distance > minimapVisibleRadius) {
@@ -479,12 +1094,43 @@ public class MinimapHud {
             }
         }
 
+        // Sort by distance (closest first)
+        offMapWaypoints.sort(Comparator.comparingDouble(wp -> wp.distance2DTo(playerX, playerZ)));
+        return offMapWaypoints.size() > MAX_COMPASS_MARKERS
+                ? offMapWaypoints.subList(0, MAX_COMPASS_MARKERS) : offMapWaypoints;
+    }
+
+    /**
+     * Up to {@link #MAX_COMPASS_MARKERS} visible waypoints beyond the minimap's range, taken in ranking
+     * order. The ranking may lag the player by a few blocks, which only swaps waypoints at nearly equal distance.
+     */
+    @Nonnull
+    private List<Waypoint> nearestOffMap(@Nonnull WaypointDistanceView.Ranking ranking, int playerX, int playerZ) {
+        int minimapVisibleRadius = layout.getVisibleRadius(minimapZoom);
+        List<Waypoint> offMapWaypoints = new ArrayList<>(MAX_COMPASS_MARKERS);
+        for (int i = 0; i < ranking.size() && offMapWaypoints.size() < MAX_COMPASS_MARKERS; i++) {
+            Waypoint wp = ranking.get(i);
+            if (wp.isVisible() && wp.distance2DTo(playerX, playerZ) > minimapVisibleRadius) {
+                offMapWaypoints.add(wp);
+            }
+        }
+        return offMapWaypoints;
+    }
+
+    /**
+     * Places compass markers for waypoints already selected and ordered by {@code nearestOffMap}.
+     */
+    private boolean updateCompassRing(@Nonnull UICommandBuilder builder,
+                                      @Nonnull Vector3d playerPos,
+                                      float yawDegrees,
+                                      @Nonnull List<Waypoint> offMapWaypoints) {
         if (offMapWaypoints.isEmpty()) {
             return hideAllCompassMarkers(builder);
         }
 
-        // Sort by distance (closest first)
-        offMapWaypoints.sort(Comparator.comparingDouble(wp -> wp.distance2DTo(playerX, playerZ)));
+        int playerX = (int) Math.floor(playerPos.getX());
+        int playerZ = (int) Math.floor(playerPos.getZ());
+        boolean changed = false;
 
         int count = Math.min(MAX_COMPASS_MARKERS, offMapWaypoints.size());
         for (int i = 0; i < count; i++) {
@@ -619,103 +1265,4 @@ public class MinimapHud {
             }
         }
     }
-
-    /**
-     * Checks if there's a waypoint at the given world coordinates.
-     * Returns the waypoint color if found, null otherwise.
-     */
-    @Nullable
-    private String getWaypointAtPosition(@Nullable List<Waypoint> waypoints, int worldX, int worldZ) {
-        if (waypoints == null || waypoints.isEmpty()) {
-            return null;
-        }
-
-        // Check if any waypoint is within render range (2 blocks)
-        for (Waypoint wp : waypoints) {
-            double distance = wp.distance2DTo(worldX, worldZ);
-            if (distance <= 2.0) {
-                return wp.getColor();
-            }
-        }
-
-        return null;
-    }
-
-    /**
-     * Converts hex color string to quantized 9-bit integer.
-     */
-    private int hexToInt(@Nonnull String hexColor) {
-        try {
-            String hex = hexColor.startsWith("#") ? hexColor.substring(1) : hexColor;
-            int rgb = Integer.parseInt(hex, 16);
-            // Quantize to 9-bit (3 bits per channel)
-            int r = ((rgb >> 16) & 0xFF) >> 5; // 0-7
-            int g = ((rgb >> 8) & 0xFF) >> 5;  // 0-7
-            int b = (rgb & 0xFF) >> 5;         // 0-7
-            return (r << 6) | (g << 3) | b;
-        } catch (Exception e) {
-            return 0x1b6; // 9-bit magenta fallback (7,5,6)
-        }
-    }
-
-    @SuppressWarnings("null")
-    private int sampleMapColorInt(@Nonnull WorldMapManager mapManager, int worldX, int worldZ) {
-        int chunkX = Math.floorDiv(worldX, 32);
-        int chunkZ = Math.floorDiv(worldZ, 32);
-        MapImage image = mapManager.getImageIfInMemory(chunkX, chunkZ);
-
-        if (image == null || image.data == null || image.width <= 0 || image.height <= 0) {
-            mapManager.getImageAsync(chunkX, chunkZ);
-            return DEFAULT_COLOR_INT;
-        }
-
-        int localX = Math.floorMod(worldX, 32);
-        int localZ = Math.floorMod(worldZ, 32);
-        int imgX = localX * image.width / 32;
-        int imgZ = localZ * image.height / 32;
-        imgX = Math.max(0, Math.min(image.width - 1, imgX));
-        imgZ = Math.max(0, Math.min(image.height - 1, imgZ));
-        int idx = imgZ * image.width + imgX;
-
-        if (idx < 0 || idx >= image.data.length) {
-            return DEFAULT_COLOR_INT;
-        }
-        return rgbaToQuantizedInt(image.data[idx]);
-    }
-
-    private int rgbaToQuantizedInt(int rgba) {
-        // Quantize to 9-bit (3 bits per channel = 512 colors) for reduced network traffic
-        int r = ((rgba >>> 24) & 0xFF) >> 5; // 0-7
-        int g = ((rgba >>> 16) & 0xFF) >> 5; // 0-7
-        int b = ((rgba >>> 8) & 0xFF) >> 5;  // 0-7
-        return (r << 6) | (g << 3) | b; // Pack into 9 bits
-    }
-
-    // 3-bit to 8-bit expansion: 0→0, 1→36, 2→73, 3→109, 4→146, 5→182, 6→219, 7→255
-    private static final int[] EXPAND_3BIT = {0, 36, 73, 109, 146, 182, 219, 255};
-
-    private String intToHex(int quantized) {
-        if (quantized < 0 || quantized >= colorPalette.length) {
-            return DEFAULT_COLOR;
-        }
-        if (colorPalette[quantized] == null) {
-            // Extract 3-bit channels from 9-bit packed value
-            int r = EXPAND_3BIT[(quantized >> 6) & 0x7];
-            int g = EXPAND_3BIT[(quantized >> 3) & 0x7];
-            int b = EXPAND_3BIT[quantized & 0x7];
-            // Use 6-digit hex for Hytale UI compatibility
-            colorPalette[quantized] = String.format("#%02x%02x%02x", r, g, b);
-        }
-        return colorPalette[quantized];
-    }
-
-    private static char toBase36Char(int value) {
-        return value < 10 ? (char) ('0' + value) : (char) ('a' + (value - 10));
-    }
-
-    private static String toBase36Pair(int value) {
-        int high = value / 36;
-        int low = value % 36;
-        return "" + toBase36Char(high) + toBase36Char(low);
-    }
 }
@@ -0,0 +1,287 @@
+package com.nextlvlhash.hud;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Pixel-to-world sampling layouts for the minimap grid.
+ * The set of visible pixels is fixed by the UI document, so every layout shares it;
+ * layouts only differ in how far from the player each pixel samples.
+ * All offsets are pre-computed per zoom level so the render loop only does table lookups.
+ */
+public enum MinimapLayout {
+    /** Uniform scale - every pixel covers {@code zoom} blocks. */
+    LINEAR("Linear", false),
+    /** Inner ring at 1 block per pixel, coarser outer rings that reach further out. */
+    FOVEATED("Foveated", true);
+
+    public static final int GRID_SIZE = 25;
+    public static final int HALF_GRID = GRID_SIZE / 2;
+    public static final int MIN_ZOOM = 1;
+    public static final int MAX_ZOOM = 5;
+
+    // Foveated ring boundaries (in pixels from the grid center)
+    private static final double INNER_RING_RADIUS = 4.0;
+    private static final double MIDDLE_RING_RADIUS = 8.0;
+
+    private final String displayName;
+    private final boolean foveated;
+    private final double[][] sampleX;     // [zoom - 1][visible pixel] world X offset before rotation
+    private final double[][] sampleZ;     // [zoom - 1][visible pixel] world Z offset before rotation
+    private final double[][] pixelScale;  // [zoom - 1][visible pixel] blocks covered by the pixel
+    private final int[] visibleRadius;    // [zoom - 1] world distance reached at the grid edge
+
+    MinimapLayout(String displayName, boolean foveated) {
+        this.displayName = displayName;
+        this.foveated = foveated;
+
+        int zoomLevels = MAX_ZOOM - MIN_ZOOM + 1;
+        int count = Grid.VISIBLE_INDICES.length;
+        this.sampleX = new double[zoomLevels][count];
+        this.sampleZ = new double[zoomLevels][count];
+        this.pixelScale = new double[zoomLevels][count];
+        this.visibleRadius = new int[zoomLevels];
+
+        for (int z = 0; z < zoomLevels; z++) {
+            int zoom = z + MIN_ZOOM;
+            for (int i = 0; i < count; i++) {
+                int index = Grid.VISIBLE_INDICES[i];
+                int px = (index % GRID_SIZE) - HALF_GRID;
+                int py = (index / GRID_SIZE) - HALF_GRID;
+                double r = Math.sqrt(px * px + py * py);
+
+                // Scale the screen offset radially so each ring covers its own distance band
+                double factor = r == 0.0 ? 0.0 : worldRadius(r, zoom) / r;
+                sampleX[z][i] = px * factor;
+                sampleZ[z][i] = -py * factor; // Negate Z so forward = up
+                pixelScale[z][i] = scaleAt(r, zoom);
+            }
+            visibleRadius[z] = (int) Math.round(worldRadius(HALF_GRID, zoom));
+        }
+    }
+
+    /**
+     * Maps a screen radius (in pixels) to a world radius (in blocks).
+     */
+    private double worldRadius(double r, int zoom) {
+        if (!foveated) {
+            return r * zoom;
+        }
+        double inner = Math.min(r, INNER_RING_RADIUS);
+        double middle = Math.max(0.0, Math.min(r, MIDDLE_RING_RADIUS) - INNER_RING_RADIUS);
+        double outer = Math.max(0.0, r - MIDDLE_RING_RADIUS);
+        return inner + middle * zoom + outer * zoom * 2.0;
+    }
+
+    /**
+     * Blocks covered by a single pixel at the given screen radius.
+     */
+    private double scaleAt(double r, int zoom) {
+        if (!foveated) {
+            return zoom;
+        }
+        if (r <= INNER_RING_RADIUS) {
+            return 1.0;
+        }
+        return r <= MIDDLE_RING_RADIUS ? zoom : zoom * 2.0;
+    }
+
+    @SuppressWarnings("null")
+    @Nonnull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Grid indices of all pixels inside the circular minimap frame.
+     */
+    @Nonnull
+    public int[] getVisibleIndices() {
+        return Grid.VISIBLE_INDICES;
+    }
+
+    /**
+     * UI selectors for each grid index (null for pixels outside the frame).
+     */
+    @Nonnull
+    public String[] getPixelSelectors() {
+        return Grid.PIXEL_SELECTORS;
+    }
+
+    /**
+     * Positions into the visible pixel arrays, sorted from the center outwards.
+     * Used to refine the nearest pixels first when a frame is sent over several ticks.
+     */
+    @Nonnull
+    public int[] getCenterOutOrder() {
+        return Grid.CENTER_OUT_ORDER;
+    }
+
+    /**
+     * Subset of {@link #getCenterOutOrder()} containing every second pixel on both axes.
+     * Sent on its own to give a usable coarse frame after a large change.
+     */
+    @Nonnull
+    public int[] getCoarseOrder() {
+        return Grid.COARSE_ORDER;
+    }
+
+    /**
+     * World X offsets for each visible pixel (same order as {@link #getVisibleIndices()}).
+     */
+    @Nonnull
+    public double[] getSampleX(int zoom) {
+        return sampleX[clampZoom(zoom) - MIN_ZOOM];
+    }
+
+    /**
+     * World Z offsets for each visible pixel (same order as {@link #getVisibleIndices()}).
+     */
+    @Nonnull
+    public double[] getSampleZ(int zoom) {
+        return sampleZ[clampZoom(zoom) - MIN_ZOOM];
+    }
+
+    /**
+     * Blocks per pixel for each visible pixel (same order as {@link #getVisibleIndices()}).
+     */
+    @Nonnull
+    public double[] getPixelScale(int zoom) {
+        return pixelScale[clampZoom(zoom) - MIN_ZOOM];
+    }
+
+    /**
+     * World distance covered from the center to the edge of the grid.
+     */
+    public int getVisibleRadius(int zoom) {
+        return visibleRadius[clampZoom(zoom) - MIN_ZOOM];
+    }
+
+    /**
+     * Cycles to the next layout.
+     */
+    @Nonnull
+    public MinimapLayout next() {
+        MinimapLayout[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+
+    /**
+     * Parses a layout from its stored name.
+     * @return the layout, or LINEAR as default if not found
+     */
+    @Nonnull
+    public static MinimapLayout fromString(@Nullable String value) {
+        if (value != null) {
+            for (MinimapLayout layout : values()) {
+                if (layout.name().equalsIgnoreCase(value)) {
+                    return layout;
+                }
+            }
+        }
+        return LINEAR;
+    }
+
+    public static int clampZoom(int zoom) {
+        return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    /**
+     * Pixel mask shared by all layouts. Kept in a holder class so it is
+     * initialized before the enum constants that read it.
+     */
+    private static final class Grid {
+        private static final double GRID_CENTER = GRID_SIZE / 2.0;
+        private static final double GRID_RADIUS = GRID_CENTER + 2.0;  // Expanded to show more of the square grid
+        private static final double GRID_RADIUS_SQ = GRID_RADIUS * GRID_RADIUS;
+
+        private static final String[] PIXEL_SELECTORS = new String[GRID_SIZE * GRID_SIZE];
+        private static final int[] VISIBLE_INDICES;
+        private static final int[] CENTER_OUT_ORDER;
+        private static final int[] COARSE_ORDER;
+
+        static {
+            boolean[] visibleMask = new boolean[GRID_SIZE * GRID_SIZE];
+            int count = 0;
+            for (int gridY = 0; gridY < GRID_SIZE; gridY++) {
+                for (int gridX = 0; gridX < GRID_SIZE; gridX++) {
+                    double dx = Math.abs((gridX + 0.5) - GRID_CENTER) - 3;  // Expanded by 2 pixels to fill frame
+                    double dy = Math.abs((gridY + 0.5) - GRID_CENTER) - 3;  // Expanded by 2 pixels to fill frame
+                    if (dx < 0) dx = 0;
+                    if (dy < 0) dy = 0;
+
+                    int index = gridY * GRID_SIZE + gridX;
+                    boolean visible = dx * dx + dy * dy <= GRID_RADIUS_SQ;
+                    visibleMask[index] = visible;
+
+                    if (visible) {
+                        count++;
+                        PIXEL_SELECTORS[index] = "#MinimapContainer #MapGrid #P" +
+                            toBase36Pair(gridX) + toBase36Pair(gridY) + ".Background";
+                    }
+                }
+            }
+            VISIBLE_INDICES = new int[count];
+            int i = 0;
+            for (int idx = 0; idx < GRID_SIZE * GRID_SIZE; idx++) {
+                if (visibleMask[idx]) {
+                    VISIBLE_INDICES[i++] = idx;
+                }
+            }
+
+            // Sort pixel positions by distance from the center (ties keep grid order)
+            Integer[] order = new Integer[count];
+            for (int p = 0; p < count; p++) {
+                order[p] = p;
+            }
+            Arrays.sort(order, Comparator.comparingInt(Grid::distanceSq));
+            CENTER_OUT_ORDER = new int[count];
+            int coarseCount = 0;
+            for (int p = 0; p < count; p++) {
+                CENTER_OUT_ORDER[p] = order[p];
+                if (isCoarse(order[p])) {
+                    coarseCount++;
+                }
+            }
+            COARSE_ORDER = new int[coarseCount];
+            int c = 0;
+            for (int p : CENTER_OUT_ORDER) {
+                if (isCoarse(p)) {
+                    COARSE_ORDER[c++] = p;
+                }
+            }
+        }
+
+        private static int distanceSq(int position) {
+            int index = VISIBLE_INDICES[position];
+            int px = (index % GRID_SIZE) - HALF_GRID;
+            int py = (index / GRID_SIZE) - HALF_GRID;
+            return px * px + py * py;
+        }
+
+        private static boolean isCoarse(int position) {
+            int index = VISIBLE_INDICES[position];
+            int px = (index % GRID_SIZE) - HALF_GRID;
+            int py = (index / GRID_SIZE) - HALF_GRID;
+            return (px & 1) == 0 && (py & 1) == 0;
+        }
+
+        private static char toBase36Char(int value) {
+            return value < 10 ? (char) ('0' + value) : (char) ('a' + (value - 10));
+        }
+
+        private static String toBase36Pair(int value) {
+            int high = value / 36;
+            int low = value % 36;
+            return "" + toBase36Char(high) + toBase36Char(low);
+        }
+    }
+}
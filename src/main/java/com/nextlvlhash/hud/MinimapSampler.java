@@ -0,0 +1,120 @@
+package com.nextlvlhash.hud;
+
+import com.nextlvlhash.waypoint.Waypoint;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+
+/**
+ * Samples minimap pixel colors for one frame: rotates the layout's offsets around the player and
+ * reads the waypoint marker or captured terrain color under each pixel.
+ * Holds only the frame's inputs, so it runs on any thread; also driven by the render pool benchmark.
+ */
+final class MinimapSampler {
+    static final int DEFAULT_RGB = 0x244924; // Dark green for chunks that aren't loaded yet
+    private static final double WAYPOINT_HIT_RADIUS = 2.0; // Minimum render range around a waypoint
+    private static final int FALLBACK_WAYPOINT_RGB = 0xff00cc; // Magenta for unparseable waypoint colors
+    private static final int MARKER_BIT = 1 << 30; // Above every depth's color index range
+
+    private final MinimapChunks chunks;
+    @Nullable
+    private final List<Waypoint> waypoints;
+    private final double[] sampleX;
+    private final double[] sampleZ;
+    private final double[] pixelScale;
+    private final ColorDepth colorDepth;
+    private final int[] themeLut;
+    private final int playerX;
+    private final int playerZ;
+    private final double cos;
+    private final double sin;
+
+    /**
+     * @param cos cosine of the map rotation
+     * @param sin sine of the map rotation (sign already matching the rotation direction)
+     */
+    MinimapSampler(@Nonnull MinimapChunks chunks,
+                   @Nullable List<Waypoint> waypoints,
+                   @Nonnull MinimapLayout layout,
+                   int zoom,
+                   @Nonnull ColorDepth colorDepth,
+                   @Nonnull int[] themeLut,
+                   int playerX,
+                   int playerZ,
+                   double cos,
+                   double sin) {
+        this.chunks = chunks;
+        this.waypoints = waypoints;
+        this.sampleX = layout.getSampleX(zoom);
+        this.sampleZ = layout.getSampleZ(zoom);
+        this.pixelScale = layout.getPixelScale(zoom);
+        this.colorDepth = colorDepth;
+        this.themeLut = themeLut;
+        this.playerX = playerX;
+        this.playerZ = playerZ;
+        this.cos = cos;
+        this.sin = sin;
+    }
+
+    /**
+     * Color of a visible pixel.
+     * @param i position in the layout's visible pixel arrays
+     * @return the color index, flagged if a waypoint marker covers the pixel (see {@link #isMarker})
+     */
+    int sample(int i) {
+        // Rotate the table offset around the player (map rotates, player stays north)
+        double dx = sampleX[i];
+        double dz = sampleZ[i];
+        int worldX = playerX + (int) Math.round(dx * cos - dz * sin);
+        int worldZ = playerZ + (int) Math.round(dx * sin + dz * cos);
+
+        // Coarser pixels get a wider hit radius so waypoints don't fall between samples
+        double hitRadius = Math.max(WAYPOINT_HIT_RADIUS, pixelScale[i] * 0.5);
+        String waypointColor = getWaypointAtPosition(worldX, worldZ, hitRadius);
+        if (waypointColor != null) {
+            return colorDepth.quantize(hexToRgb(waypointColor)) | MARKER_BIT;
+        }
+        // Terrain color, mapped through the theme lookup table
+        int rgb = chunks.getColor(worldX, worldZ);
+        return themeLut[colorDepth.quantizeTerrain(rgb >= 0 ? rgb : DEFAULT_RGB, worldX, worldZ)];
+    }
+
+    static boolean isMarker(int sample) {
+        return (sample & MARKER_BIT) != 0;
+    }
+
+    static int colorOf(int sample) {
+        return sample & ~MARKER_BIT;
+    }
+
+    /**
+     * Checks if there's a waypoint at the given world coordinates.
+     * Returns the waypoint color if found, null otherwise.
+     */
+    @Nullable
+    private String getWaypointAtPosition(int worldX, int worldZ, double hitRadius) {
+        if (waypoints == null || waypoints.isEmpty()) {
+            return null;
+        }
+
+        // Check if any waypoint is within render range of this pixel
+        for (Waypoint wp : waypoints) {
+            double distance = wp.distance2DTo(worldX, worldZ);
+            if (distance <= hitRadius) {
+                return wp.getColor();
+            }
+        }
+
+        return null;
+    }
+
+    private static int hexToRgb(@Nonnull String hexColor) {
+        try {
+            String hex = hexColor.startsWith("#") ? hexColor.substring(1) : hexColor;
+            return Integer.parseInt(hex, 16) & 0xFFFFFF;
+        } catch (Exception e) {
+            return FALLBACK_WAYPOINT_RGB;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Minimap color themes.
+ * A theme is applied through a lookup table from quantized color index to quantized color index,
+ * built once per (time band, color depth) and shared by all players. The render loop only does
+ * one array lookup per pixel; output strings come from the shared {@link ColorDepth} hex table.
+ */
+public enum MinimapTheme {
+    /** Map colors as they are. */
+    DEFAULT("Default"),
+    /** Moves red/green differences onto the blue/yellow axis (deuteranopia and protanopia). */
+    COLORBLIND("Colorblind"),
+    /** Stronger contrast and saturation. */
+    HIGH_CONTRAST("High Contrast");
+
+    private static final float CONTRAST = 1.45f;
+    private static final float SATURATION = 1.35f;
+
+    private final String displayName;
+    private final int[][][] luts; // [time band][color depth] -> lookup table, built on first use
+
+    MinimapTheme(String displayName) {
+        this.displayName = displayName;
+        this.luts = new int[TimeBand.values().length][ColorDepth.values().length][];
+    }
+
+    @SuppressWarnings("null")
+    @Nonnull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the lookup table for a time band and color depth.
+     * Indexed by the quantized color; returns the themed color in the same depth.
+     */
+    @Nonnull
+    public synchronized int[] getLut(@Nonnull TimeBand band, @Nonnull ColorDepth depth) {
+        int[] lut = luts[band.ordinal()][depth.ordinal()];
+        if (lut == null) {
+            lut = new int[depth.getColorCount()];
+            for (int index = 0; index < lut.length; index++) {
+                int rgb = band.tint(transform(depth.toRgb(index)));
+                lut[index] = depth.quantizeNearest(rgb);
+            }
+            luts[band.ordinal()][depth.ordinal()] = lut;
+        }
+        return lut;
+    }
+
+    /**
+     * Theme color transform (only used while building lookup tables).
+     */
+    private int transform(int rgb) {
+        switch (this) {
+            case COLORBLIND:
+                return daltonize(rgb);
+            case HIGH_CONTRAST:
+                return boostContrast(rgb);
+            default:
+                return rgb;
+        }
+    }
+
+    /**
+     * Simulates deuteranopia in LMS space and shifts the lost red/green error into green and blue.
+     */
+    private static int daltonize(int rgb) {
+        float r = (rgb >> 16) & 0xFF;
+        float g = (rgb >> 8) & 0xFF;
+        float b = rgb & 0xFF;
+
+        float l = 17.8824f * r + 43.5161f * g + 4.11935f * b;
+        float s = 0.0299566f * r + 0.184309f * g + 1.46709f * b;
+
+        // Deuteranope sees M (medium cone) as a mix of L and S
+        float md = 0.494207f * l + 1.24827f * s;
+
+        float sr = 0.0809444479f * l - 0.130504409f * md + 0.116721066f * s;
+        float sg = -0.0102485335f * l + 0.0540193266f * md - 0.113614708f * s;
+        float sb = -0.000365296938f * l - 0.00412161469f * md + 0.693511405f * s;
+
+        float er = r - sr;
+        float eg = g - sg;
+        float eb = b - sb;
+        return pack(r, g + 0.7f * er + eg, b + 0.7f * er + eb);
+    }
+
+    private static int boostContrast(int rgb) {
+        float r = (rgb >> 16) & 0xFF;
+        float g = (rgb >> 8) & 0xFF;
+        float b = rgb & 0xFF;
+        float grey = 0.299f * r + 0.587f * g + 0.114f * b;
+        r = grey + (r - grey) * SATURATION;
+        g = grey + (g - grey) * SATURATION;
+        b = grey + (b - grey) * SATURATION;
+        return pack((r - 128f) * CONTRAST + 128f, (g - 128f) * CONTRAST + 128f, (b - 128f) * CONTRAST + 128f);
+    }
+
+    private static int pack(float r, float g, float b) {
+        int ri = Math.max(0, Math.min(255, Math.round(r)));
+        int gi = Math.max(0, Math.min(255, Math.round(g)));
+        int bi = Math.max(0, Math.min(255, Math.round(b)));
+        return (ri << 16) | (gi << 8) | bi;
+    }
+
+    /**
+     * Cycles to the next theme.
+     */
+    @Nonnull
+    public MinimapTheme next() {
+        MinimapTheme[] values = values();
+        return values[(ordinal() + 1) % values.length];
+    }
+
+    /**
+     * Parses a theme from its stored name.
+     * @return the theme, or DEFAULT if not found
+     */
+    @Nonnull
+    public static MinimapTheme fromString(@Nullable String value) {
+        if (value != null) {
+            for (MinimapTheme theme : values()) {
+                if (theme.name().equalsIgnoreCase(value)) {
+                    return theme;
+                }
+            }
+        }
+        return DEFAULT;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+}
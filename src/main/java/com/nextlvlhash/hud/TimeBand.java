@@ -0,0 +1,55 @@
+package com.nextlvlhash.hud;
+
+import javax.annotation.Nonnull;
+import java.time.LocalDateTime;
+
+/**
+ * Time-of-day bands used to tint the minimap.
+ * Each band is a per-channel multiplier, applied once when a theme lookup table is built.
+ */
+public enum TimeBand {
+    DAWN(0.90f, 0.82f, 0.85f),
+    DAY(1.00f, 1.00f, 1.00f),
+    DUSK(0.88f, 0.72f, 0.68f),
+    NIGHT(0.42f, 0.48f, 0.68f);
+
+    private final float redScale;
+    private final float greenScale;
+    private final float blueScale;
+
+    TimeBand(float redScale, float greenScale, float blueScale) {
+        this.redScale = redScale;
+        this.greenScale = greenScale;
+        this.blueScale = blueScale;
+    }
+
+    /**
+     * Applies the band tint to a color.
+     * @param rgb color as 0xRRGGBB
+     */
+    public int tint(int rgb) {
+        int r = Math.round(((rgb >> 16) & 0xFF) * redScale);
+        int g = Math.round(((rgb >> 8) & 0xFF) * greenScale);
+        int b = Math.round((rgb & 0xFF) * blueScale);
+        return (Math.min(255, r) << 16) | (Math.min(255, g) << 8) | Math.min(255, b);
+    }
+
+    /**
+     * Gets the band for a world time.
+     * Dawn 5-7, day 7-18, dusk 18-20, night 20-5.
+     */
+    @Nonnull
+    public static TimeBand fromDateTime(@Nonnull LocalDateTime dateTime) {
+        int hour = dateTime.getHour();
+        if (hour >= 5 && hour < 7) {
+            return DAWN;
+        }
+        if (hour >= 7 && hour < 18) {
+            return DAY;
+        }
+        if (hour >= 18 && hour < 20) {
+            return DUSK;
+        }
+        return NIGHT;
+    }
+}
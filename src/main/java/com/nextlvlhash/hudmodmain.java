@@ -4,38 +4,45 @@ import com.hypixel.hytale.server.core.plugin.JavaPlugin;
 import com.hypixel.hytale.server.core.plugin.JavaPluginInit;
 import com.hypixel.hytale.component.Ref;
 import com.hypixel.hytale.component.Store;
-import com.hypixel.hytale.server.core.HytaleServer;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.UUIDComponent;
 import com.hypixel.hytale.server.core.entity.entities.player.hud.HudManager;
 import com.hypixel.hytale.server.core.event.events.player.PlayerDisconnectEvent;
 import com.hypixel.hytale.server.core.event.events.player.PlayerReadyEvent;
 import com.hypixel.hytale.server.core.io.adapter.PacketAdapters;
-import com.hypixel.hytale.server.core.modules.time.WorldTimeResource;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.Universe;
+import com.hypixel.hytale.math.vector.Transform;
 import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.events.StartWorldEvent;
+import com.hypixel.hytale.server.core.universe.world.spawn.ISpawnProvider;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
 import com.nextlvlhash.command.WaypointCommand;
 import com.nextlvlhash.command.HudMenuCommand;
+import com.nextlvlhash.command.HudStatsCommand;
 import com.nextlvlhash.hud.ClockHud;
+import com.nextlvlhash.hud.HudMailbox;
+import com.nextlvlhash.hud.HudRenderPool;
+import com.nextlvlhash.hud.HudSession;
+import com.nextlvlhash.hud.HudWatchdog;
+import com.nextlvlhash.storage.MinimapTileCache;
 import com.nextlvlhash.storage.WaypointStorage;
-import com.nextlvlhash.system.PlayerDeathWaypointSystem;
 import com.nextlvlhash.system.MapIntegrationSystem;
+import com.nextlvlhash.system.MapInvalidationSystems;
+import com.nextlvlhash.system.PlayerDeathWaypointSystem;
 import com.nextlvlhash.system.HudMenuKeyFilter;
+import com.nextlvlhash.system.HudMovementFilter;
 
 import javax.annotation.Nonnull;
-import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
 
 public class hudmodmain extends JavaPlugin {
 
-    private final ConcurrentHashMap<UUID, ScheduledFuture<?>> updateTasks = new ConcurrentHashMap<>();
     private WaypointStorage waypointStorage;
     private HudMenuKeyFilter hudMenuKeyFilter;
+    private HudMovementFilter hudMovementFilter;
 
     public hudmodmain(@Nonnull JavaPluginInit init) {
         super(init);
@@ -47,19 +54,61 @@ public class hudmodmain extends JavaPlugin {
         // Initialize waypoint storage
         waypointStorage = new WaypointStorage(this.getDataDirectory());
         waypointStorage.init();
+        // Global waypoint changes reach every HUD and native map in one pass per world
+        waypointStorage.setGlobalChangeListener(() -> HudSession.broadcast(HudMailbox.SYNC_MAP_MARKERS));
+
+        // Persistent minimap colors so maps are populated right after a restart
+        MinimapTileCache.init(this.getDataDirectory());
 
         // Register O key packet filter to open HUD menu
         hudMenuKeyFilter = new HudMenuKeyFilter(waypointStorage);
         PacketAdapters.registerInbound(hudMenuKeyFilter);
+
+        // Render the HUD when the client reports moving a block or turning
+        hudMovementFilter = new HudMovementFilter();
+        PacketAdapters.registerInbound(hudMovementFilter);
         System.out.println("[HudMod] Registered O key hotkey for HUD menu");
 
         // Register commands
         this.getCommandRegistry().registerCommand(new WaypointCommand(waypointStorage));
         this.getCommandRegistry().registerCommand(new HudMenuCommand(waypointStorage));
+        this.getCommandRegistry().registerCommand(new HudStatsCommand());
+
+        // Step HUD quality down when a world falls behind
+        HudWatchdog.start();
+
+        // Compute HUD frames in parallel, off the world threads
+        HudRenderPool.start(waypointStorage.getServerConfig().getRenderCoreShare());
 
         // Register death waypoint system
         this.getEntityStoreRegistry().registerSystem(new PlayerDeathWaypointSystem(waypointStorage));
 
+        // Invalidate cached minimap tiles when blocks change
+        this.getEntityStoreRegistry().registerSystem(new MapInvalidationSystems.OnBreakBlock());
+        this.getEntityStoreRegistry().registerSystem(new MapInvalidationSystems.OnPlaceBlock());
+
+        // Prewarm the tile cache around the world's spawn once it is up
+        // (waypoints don't record their world, so they can't be prewarmed per world)
+        this.getEventRegistry().registerGlobal(StartWorldEvent.class, event -> {
+            World world = event.getWorld();
+            MinimapTileCache tileCache = world != null ? MinimapTileCache.forWorld(world) : null;
+            if (tileCache == null) {
+                return;
+            }
+            CompletableFuture.runAsync(() -> {
+                try {
+                    ISpawnProvider spawnProvider = world.getWorldConfig().getSpawnProvider();
+                    Transform spawn = spawnProvider != null ? spawnProvider.getSpawnPoint(world, new UUID(0L, 0L)) : null;
+                    if (spawn != null) {
+                        tileCache.prewarm(world, List.of(new int[]{(int) Math.floor(spawn.getPosition().getX()),
+                                (int) Math.floor(spawn.getPosition().getZ())}));
+                    }
+                } catch (Exception e) {
+                    System.out.println("[HudMod] Could not resolve spawn for tile cache prewarm: " + e.getMessage());
+                }
+            });
+        });
+
         // Show and initialize the HUD when the player is ready (has joined the world)
         this.getEventRegistry().registerGlobal(PlayerReadyEvent.class, event -> {
             Player player = event.getPlayer();
@@ -84,70 +133,35 @@ public class hudmodmain extends JavaPlugin {
 
             HudManager hudManager = player.getHudManager();
             hudManager.setCustomHud(playerRef, clockHud);
+            // The session owns the HUD, its update task and per-player metrics;
+            // movement is rendered by HudMovementFilter as packets arrive
+            HudSession.start(playerRef, clockHud, world, waypointStorage);
             System.out.println("[HudMod] Set custom HUD for " + player.getDisplayName());
             System.out.println("[HudMod] Press O to open HUD menu");
 
-            // Initial sync so the minimap clock shows a single correct hand immediately
-            world.execute(() -> {
-                WorldTimeResource timeResource = storeRef.getStore()
-                        .getResource(WorldTimeResource.getResourceType());
-                LocalDateTime dateTime = timeResource.getGameDateTime();
-                clockHud.update(dateTime, world, storeRef, playerRef);
-                
-                // Sync waypoints to native map on join
-                MapIntegrationSystem.syncWaypointsToMap(player, waypointStorage);
-            });
-
-            ScheduledFuture<?> existing = updateTasks.remove(uuid);
-            if (existing != null) {
-                existing.cancel(false);
-            }
-
-            // Update HUD every 750ms for better performance
-            ScheduledFuture<?> task = HytaleServer.SCHEDULED_EXECUTOR.scheduleAtFixedRate(() -> {
-                if (!playerRef.isValid()) {
-                    ScheduledFuture<?> running = updateTasks.remove(uuid);
-                    if (running != null) {
-                        running.cancel(false);
-                    }
-                    return;
-                }
-
-                world.execute(() -> {
-                    if (!playerRef.isValid()) {
-                        return;
-                    }
-
-                    WorldTimeResource timeResource = storeRef.getStore()
-                            .getResource(WorldTimeResource.getResourceType());
-                    LocalDateTime dateTime = timeResource.getGameDateTime();
-                    clockHud.update(dateTime, world, storeRef, playerRef);
-                });
-            }, 750, 750, TimeUnit.MILLISECONDS);
-
-            updateTasks.put(uuid, task);
+            // Sync waypoints to native map on join; the same world task does the initial HUD sync
+            // so the minimap clock shows a single correct hand immediately
+            HudSession.post(uuid, HudMailbox.SYNC_MAP_MARKERS);
         });
 
         this.getEventRegistry().registerGlobal(PlayerDisconnectEvent.class, event -> {
             PlayerRef playerRef = event.getPlayerRef();
-            Ref<EntityStore> storeRef = playerRef.getReference();
-            if (storeRef != null && storeRef.isValid()) {
-                Store<EntityStore> store = storeRef.getStore();
-                UUIDComponent uuidComp = store.getComponent(storeRef, UUIDComponent.getComponentType());
-                if (uuidComp != null) {
-                    UUID uuid = uuidComp.getUuid();
-                    ScheduledFuture<?> task = updateTasks.remove(uuid);
-                    if (task != null) {
-                        task.cancel(false);
-                    }
-                    // Clear waypoint cache
-                    waypointStorage.clearCache(uuid);
-                    // Clean up O key filter state
-                    hudMenuKeyFilter.onPlayerDisconnect(uuid);
-                }
-            }
+            // Stop HUD updates and release the session
+            HudSession.end(playerRef.getUuid());
+            MapIntegrationSystem.onPlayerDisconnect(playerRef.getUuid());
+            // Clear waypoint cache
+            waypointStorage.clearCache(playerRef.getUuid());
+            // Clean up movement filter state
+            hudMovementFilter.onPlayerDisconnect(playerRef.getUuid());
         });
 
         System.out.println("[HudMod] initialized - Press O to open menu!");
     }
+
+    @Override
+    protected void shutdown() {
+        HudWatchdog.stop();
+        HudRenderPool.stop();
+        MinimapTileCache.closeAll();
+    }
 }
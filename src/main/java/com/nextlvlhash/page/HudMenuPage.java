@@ -15,6 +15,7 @@ import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.storage.WaypointStorage;
 
 import javax.annotation.Nonnull;
@@ -38,6 +39,9 @@ public class HudMenuPage extends InteractiveCustomUIPage<HudMenuPage.HudMenuData
                       @Nonnull UICommandBuilder ui,
                       @Nonnull UIEventBuilder events,
                       @Nonnull Store<EntityStore> store) {
+        // Pause HUD updates while this page is open
+        HudSession.pageOpened(playerRef.getUuid(), this);
+
         System.out.println("[HudMenuPage] build() method called - setting up UI");
         
         ui.append("hudmenu/hudmenu.ui");
@@ -107,6 +111,7 @@ public class HudMenuPage extends InteractiveCustomUIPage<HudMenuPage.HudMenuData
                 // Close the menu
                 System.out.println("[HudMenuPage] Closing menu");
                 player.getPageManager().setPage(ref, store, Page.None);
+                HudSession.pageClosed(playerRef.getUuid(), this);
                 break;
         }
     }
@@ -128,6 +133,12 @@ public class HudMenuPage extends InteractiveCustomUIPage<HudMenuPage.HudMenuData
         }
     }
 
+    @Override
+    public void onDismiss(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
+        // Resume HUD updates
+        HudSession.pageClosed(playerRef.getUuid(), this);
+    }
+
     public static class HudMenuData {
         public static final BuilderCodec<HudMenuData> CODEC;
 
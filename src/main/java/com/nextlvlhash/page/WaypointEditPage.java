@@ -17,6 +17,7 @@ import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.storage.WaypointStorage;
 import com.nextlvlhash.waypoint.Waypoint;
 import com.nextlvlhash.waypoint.WaypointIcon;
@@ -56,6 +57,9 @@ public class WaypointEditPage extends InteractiveCustomUIPage<WaypointEditPage.W
                       @Nonnull UICommandBuilder ui,
                       @Nonnull UIEventBuilder events,
                       @Nonnull Store<EntityStore> store) {
+        // Pause HUD updates while this page is open
+        HudSession.pageOpened(playerRef.getUuid(), this);
+
         ui.append("hudmenu/waypointedit.ui");
 
         // Set current values (use .Value for TextField elements)
@@ -191,6 +195,7 @@ public class WaypointEditPage extends InteractiveCustomUIPage<WaypointEditPage.W
                     
                     // Close the menu after teleport
                     player.getPageManager().setPage(ref, store, Page.None);
+                    HudSession.pageClosed(playerRef.getUuid(), this);
                 } else {
                     player.sendMessage(Message.raw("§cYou must be an operator to teleport."));
                 }
@@ -200,10 +205,13 @@ public class WaypointEditPage extends InteractiveCustomUIPage<WaypointEditPage.W
             case SAVE:
                 // Save waypoint
                 storage.updateWaypoint(playerRef.getUuid(), waypoint).thenAccept(v -> {
-                    // Send success message
-                    player.sendMessage(Message.raw("§aWaypoint '" + waypoint.getName() + "' saved!"));
-                    // Return to list
-                    player.getPageManager().openCustomPage(ref, store, new WaypointListPage(this.playerRef, this.storage));
+                    // Back on the world thread
+                    HudSession.post(playerRef.getUuid(), () -> {
+                        // Send success message
+                        player.sendMessage(Message.raw("§aWaypoint '" + waypoint.getName() + "' saved!"));
+                        // Return to list
+                        player.getPageManager().openCustomPage(ref, store, new WaypointListPage(this.playerRef, this.storage));
+                    });
                 });
                 sendUpdate(); // Acknowledge event while async operation runs
                 break;
@@ -211,13 +219,16 @@ public class WaypointEditPage extends InteractiveCustomUIPage<WaypointEditPage.W
             case DELETE:
                 // Delete waypoint
                 storage.removeWaypoint(playerRef.getUuid(), waypoint.getId()).thenAccept(success -> {
-                    if (success) {
-                        player.sendMessage(Message.raw("§aWaypoint '" + waypoint.getName() + "' deleted!"));
-                        // Return to list
-                        player.getPageManager().openCustomPage(ref, store, new WaypointListPage(this.playerRef, this.storage));
-                    } else {
-                        player.sendMessage(Message.raw("§cFailed to delete waypoint."));
-                    }
+                    // Back on the world thread
+                    HudSession.post(playerRef.getUuid(), () -> {
+                        if (success) {
+                            player.sendMessage(Message.raw("§aWaypoint '" + waypoint.getName() + "' deleted!"));
+                            // Return to list
+                            player.getPageManager().openCustomPage(ref, store, new WaypointListPage(this.playerRef, this.storage));
+                        } else {
+                            player.sendMessage(Message.raw("§cFailed to delete waypoint."));
+                        }
+                    });
                 });
                 sendUpdate(); // Acknowledge event while async operation runs
                 break;
@@ -251,6 +262,12 @@ public class WaypointEditPage extends InteractiveCustomUIPage<WaypointEditPage.W
         }
     }
 
+    @Override
+    public void onDismiss(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
+        // Resume HUD updates
+        HudSession.pageClosed(playerRef.getUuid(), this);
+    }
+
     public static class WaypointEditData {
         public static final BuilderCodec<WaypointEditData> CODEC;
 
@@ -9,6 +9,7 @@ import com.hypixel.hytale.component.Store;
 import com.hypixel.hytale.protocol.packets.interface_.CustomPageLifetime;
 import com.hypixel.hytale.protocol.packets.interface_.CustomUIEventBindingType;
 import com.hypixel.hytale.protocol.packets.interface_.Page;
+import com.hypixel.hytale.server.core.HytaleServer;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.pages.InteractiveCustomUIPage;
 import com.hypixel.hytale.server.core.modules.entity.component.TransformComponent;
@@ -17,32 +18,72 @@ import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudMailbox;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.storage.WaypointStorage;
 import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointBulkAction;
 import com.nextlvlhash.waypoint.WaypointCategory;
 import com.nextlvlhash.waypoint.WaypointConfig;
+import com.nextlvlhash.waypoint.WaypointDistanceView;
+import com.nextlvlhash.waypoint.WaypointListView;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Waypoint list page with search and add functionality.
  * Shows all waypoints as clickable buttons with centered text.
- * Supports pagination with 4 waypoints per page.
+ * Waypoints are listed by name from the config's sorted {@link WaypointListView}, 4 per page,
+ * with first/prev/next/last buttons and a sliding window of three page numbers. The shown page
+ * is remembered as the sort key of its first row (a cursor), so it survives edits to the list,
+ * and only the rows of that page are read from the view. A search lists the ranked results of
+ * the config's {@link com.nextlvlhash.waypoint.WaypointNameIndex} instead. "Nearest first" takes the
+ * order from the HUD session's {@link WaypointDistanceView}, and rows show the distance to each waypoint.
+ * The page is built once; searches, page switches and the add form update it in place by sending
+ * only the labels and visibilities that changed. Row buttons carry their row index, so their
+ * bindings never change. Search keystrokes are debounced before the list is filtered.
+ * In select mode rows toggle a selection that hide/show/remove apply to as one bulk change.
  */
 public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.WaypointListData> {
 
     private static final int WAYPOINTS_PER_PAGE = 4;
-    private static final int MAX_WAYPOINTS = 12;
+    private static final int PAGE_SLOTS = 3; // Numbered page buttons
+    private static final long SEARCH_DEBOUNCE_MS = 250L; // Apply a search once typing pauses this long
+    private static final String ACTIVE_PAGE_COLOR = "#FFD700";
+    private static final String PAGE_COLOR = "#FFFFFF";
     private final WaypointStorage storage;
-    
-    // Current state (passed through constructor for page reopens)
-    private final String currentSearchQuery;
-    private final boolean isAddingWaypoint;
-    private final int currentPage;
-    private List<Waypoint> filteredWaypoints = new ArrayList<>();
+
+    // Current state (kept across events while the page is open)
+    private String currentSearchQuery;
+    private boolean isAddingWaypoint;
+    private String cursorKey = null; // Sort key of the first row shown, null = first page
+    private int jumpToPage; // Page requested by the constructor, -1 once applied
+    private int currentPage = 0;
+    private int totalPages = 1;
+    private boolean sortByDistance = false;
+    private boolean selecting = false; // Multi-select mode: rows toggle selection instead of opening the editor
+    private final Set<String> selectedIds = new LinkedHashSet<>();
+    private WaypointListView view = null; // View, query, sort and ranking the results were computed from
+    private String filteredQuery = null;
+    private boolean filteredByDistance = false;
+    private WaypointDistanceView.Ranking filteredRanking = null;
+    private List<Waypoint> results = null; // Search results or nearest-first order, null = the whole view by name
+    private final Map<String, Integer> resultPositions = new HashMap<>(); // Result index by sort key
+    private final int[] slotPages = new int[PAGE_SLOTS]; // Page shown on each numbered button
+    private final String[] rowWaypointIds = new String[WAYPOINTS_PER_PAGE]; // Waypoint shown in each row
+    private final Map<String, Object> shownValues = new HashMap<>(); // Last value sent per UI property
+    private final AtomicLong searchSequence = new AtomicLong(); // Latest search keystroke
+    private volatile boolean closed = false; // Dismissed or replaced - pending searches are dropped
 
     public WaypointListPage(@Nonnull PlayerRef playerRef, @Nonnull WaypointStorage storage) {
         this(playerRef, storage, "", false, 0);
@@ -60,7 +101,7 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
         this.storage = storage;
         this.currentSearchQuery = searchQuery;
         this.isAddingWaypoint = isAddingWaypoint;
-        this.currentPage = Math.max(0, page);
+        this.jumpToPage = Math.max(0, page);
     }
 
     @SuppressWarnings("null")
@@ -69,6 +110,9 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
                       @Nonnull UICommandBuilder ui,
                       @Nonnull UIEventBuilder events,
                       @Nonnull Store<EntityStore> store) {
+        // Pause HUD updates while this page is open
+        HudSession.pageOpened(playerRef.getUuid(), this);
+
         ui.append("hudmenu/waypointlist.ui");
 
         // Set the search input value to maintain search state across page reopens
@@ -76,23 +120,24 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
             ui.set("#SearchInput.Value", currentSearchQuery);
         }
 
-        // Build waypoint list with current search query
-        buildWaypointList(ui, events, currentSearchQuery);
-
-        // Get total waypoint count to check if max reached
-        WaypointConfig config = storage.getWaypointConfig(playerRef.getUuid());
-        int totalWaypoints = config.getWaypoints().size();
-        boolean canAddMore = totalWaypoints < MAX_WAYPOINTS;
+        // Distances from where the player stands now (the HUD pauses while the page is open)
+        WaypointDistanceView distances = HudSession.distanceView(playerRef.getUuid());
+        TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
+        if (distances != null && transform != null) {
+            Vector3d pos = transform.getPosition();
+            distances.update(storage.getWaypointConfig(playerRef.getUuid()), storage.getGlobalLayer(),
+                    (int) Math.floor(pos.getX()), (int) Math.floor(pos.getZ()));
+        }
 
-        // Set add form visibility based on state and max waypoint limit
-        ui.set("#AddWaypointSection.Visible", isAddingWaypoint && canAddMore);
-        ui.set("#AddWaypointButton.Visible", !isAddingWaypoint && canAddMore);
+        // Fresh document - every property is sent once
+        shownValues.clear();
+        updateList(ui);
 
-        // Search event - triggers page reopen with new query
+        // Search event - debounced, then the list is updated in place
         events.addEventBinding(CustomUIEventBindingType.ValueChanged,
                 "#SearchInput",
                 EventData.of("@SearchText", "#SearchInput.Value").put("Action", "SEARCH"),
-                true);
+                false);
 
         // Add waypoint button
         events.addEventBinding(CustomUIEventBindingType.Activating,
@@ -118,61 +163,128 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
                 new EventData().put("Action", "BACK"),
                 false);
 
-        // Page navigation buttons (1, 2, 3)
+        // Page navigation buttons
         events.addEventBinding(CustomUIEventBindingType.Activating,
-                "#Page1Button",
-                new EventData().put("Action", "GO_TO_PAGE").put("PageNum", "0"),
+                "#FirstPageButton",
+                new EventData().put("Action", "FIRST_PAGE"),
                 false);
 
         events.addEventBinding(CustomUIEventBindingType.Activating,
-                "#Page2Button",
-                new EventData().put("Action", "GO_TO_PAGE").put("PageNum", "1"),
+                "#PrevPageButton",
+                new EventData().put("Action", "PREV_PAGE"),
                 false);
 
         events.addEventBinding(CustomUIEventBindingType.Activating,
-                "#Page3Button",
-                new EventData().put("Action", "GO_TO_PAGE").put("PageNum", "2"),
+                "#NextPageButton",
+                new EventData().put("Action", "NEXT_PAGE"),
                 false);
-    }
 
-    private void buildWaypointList(@Nonnull UICommandBuilder ui,
-                                   @Nonnull UIEventBuilder events,
-                                   @Nonnull String query) {
-        WaypointConfig config = storage.getWaypointConfig(playerRef.getUuid());
-        List<Waypoint> waypoints = config.getWaypoints();
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#LastPageButton",
+                new EventData().put("Action", "LAST_PAGE"),
+                false);
 
-        // Filter waypoints by search query
-        if (query.isEmpty()) {
-            filteredWaypoints = new ArrayList<>(waypoints);
-        } else {
-            String lowerQuery = query.toLowerCase();
-            filteredWaypoints = waypoints.stream()
-                    .filter(wp -> wp.getName().toLowerCase().contains(lowerQuery))
-                    .collect(Collectors.toList());
+        // Numbered page buttons - bound by slot, resolved to the page shown in that slot on click
+        for (int i = 0; i < PAGE_SLOTS; i++) {
+            events.addEventBinding(CustomUIEventBindingType.Activating,
+                    "#Page" + (i + 1) + "Button",
+                    new EventData().put("Action", "GO_TO_PAGE").put("PageSlot", String.valueOf(i)),
+                    false);
         }
 
-        // Calculate pagination
-        int totalWaypoints = filteredWaypoints.size();
-        int totalPages = Math.max(1, (int) Math.ceil((double) totalWaypoints / WAYPOINTS_PER_PAGE));
-        int safePage = Math.min(currentPage, totalPages - 1);
-        int startIndex = safePage * WAYPOINTS_PER_PAGE;
-        int endIndex = Math.min(startIndex + WAYPOINTS_PER_PAGE, totalWaypoints);
+        // Sort toggle (name / nearest first)
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#SortButton",
+                new EventData().put("Action", "TOGGLE_SORT"),
+                false);
 
-        // Show/hide no waypoints message
-        boolean hasWaypoints = !filteredWaypoints.isEmpty();
-        ui.set("#NoWaypointsLabel.Visible", !hasWaypoints);
+        // Multi-select mode and the bulk actions on the selection
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#SelectButton",
+                new EventData().put("Action", "TOGGLE_SELECT"),
+                false);
 
-        // Show page buttons based on total pages (max 3 pages supported)
-        ui.set("#Page1Button.Visible", totalPages >= 1 && hasWaypoints);
-        ui.set("#Page2Button.Visible", totalPages >= 2);
-        ui.set("#Page3Button.Visible", totalPages >= 3);
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#SelectAllButton",
+                new EventData().put("Action", "SELECT_ALL"),
+                false);
 
-        // Highlight current page by changing text color (gold for active)
-        ui.set("#Page1Label.Style.TextColor", safePage == 0 ? "#FFD700" : "#FFFFFF");
-        ui.set("#Page2Label.Style.TextColor", safePage == 1 ? "#FFD700" : "#FFFFFF");
-        ui.set("#Page3Label.Style.TextColor", safePage == 2 ? "#FFD700" : "#FFFFFF");
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#BulkHideButton",
+                new EventData().put("Action", "BULK_HIDE"),
+                false);
 
-        // Display waypoints for current page (4 per page)
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#BulkShowButton",
+                new EventData().put("Action", "BULK_SHOW"),
+                false);
+
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#BulkRemoveButton",
+                new EventData().put("Action", "BULK_REMOVE"),
+                false);
+
+        // Waypoint rows - bound by row, resolved to the waypoint shown in that row on click
+        for (int i = 0; i < WAYPOINTS_PER_PAGE; i++) {
+            events.addEventBinding(CustomUIEventBindingType.Activating,
+                    "#Waypoint" + i,
+                    new EventData().put("Action", "SELECT_WAYPOINT").put("Row", String.valueOf(i)),
+                    false);
+        }
+    }
+
+    /**
+     * Adds commands for every list property whose value differs from what the client shows.
+     */
+    private void updateList(@Nonnull UICommandBuilder ui) {
+        WaypointConfig config = storage.getWaypointConfig(playerRef.getUuid());
+        WaypointDistanceView distances = HudSession.distanceView(playerRef.getUuid());
+        if (distances != null && !distances.isPositioned()) {
+            distances = null; // No position yet - no distances to show or sort by
+        }
+        refreshFilter(config, distances);
+
+        // Find the page from the cursor (or the requested page), snapped to a page boundary
+        int total = count();
+        totalPages = Math.max(1, (total + WAYPOINTS_PER_PAGE - 1) / WAYPOINTS_PER_PAGE);
+        int position;
+        if (jumpToPage >= 0) {
+            position = Math.min(jumpToPage, totalPages - 1) * WAYPOINTS_PER_PAGE;
+            jumpToPage = -1;
+        } else {
+            position = cursorKey != null ? positionOf(cursorKey) : 0;
+        }
+        currentPage = Math.min(position / WAYPOINTS_PER_PAGE, totalPages - 1);
+        int startIndex = currentPage * WAYPOINTS_PER_PAGE;
+        int endIndex = Math.min(startIndex + WAYPOINTS_PER_PAGE, total);
+        cursorKey = startIndex < total ? keyAt(startIndex) : null;
+
+        // Show/hide no waypoints message
+        boolean hasWaypoints = total > 0;
+        set(ui, "#NoWaypointsLabel.Visible", !hasWaypoints);
+
+        set(ui, "#SortButton.Visible", distances != null);
+        set(ui, "#SortLabel.Text", sortByDistance ? "Nearest" : "A-Z");
+
+        // First/prev and next/last only where there is somewhere to go
+        set(ui, "#FirstPageButton.Visible", currentPage > 0);
+        set(ui, "#PrevPageButton.Visible", currentPage > 0);
+        set(ui, "#NextPageButton.Visible", currentPage < totalPages - 1);
+        set(ui, "#LastPageButton.Visible", currentPage < totalPages - 1);
+        set(ui, "#PageInfoLabel.Text", hasWaypoints ? "Page " + (currentPage + 1) + " / " + totalPages : "");
+
+        // Numbered buttons show a window of pages around the current one (gold for active)
+        int firstSlotPage = Math.max(0, Math.min(currentPage - 1, totalPages - PAGE_SLOTS));
+        for (int i = 0; i < PAGE_SLOTS; i++) {
+            String slotId = "#Page" + (i + 1);
+            int slotPage = firstSlotPage + i;
+            slotPages[i] = slotPage;
+            set(ui, slotId + "Button.Visible", hasWaypoints && slotPage < totalPages);
+            set(ui, slotId + "Label.Text", String.valueOf(slotPage + 1));
+            set(ui, slotId + "Label.Style.TextColor", slotPage == currentPage ? ACTIVE_PAGE_COLOR : PAGE_COLOR);
+        }
+
+        // Display waypoints for current page (4 per page) - the only rows read from the view
         for (int i = 0; i < WAYPOINTS_PER_PAGE; i++) {
             String buttonId = "#Waypoint" + i;
             String labelId = "#Waypoint" + i + "Label";
@@ -180,29 +292,189 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
 
             int waypointIndex = startIndex + i;
             if (waypointIndex < endIndex) {
-                Waypoint wp = filteredWaypoints.get(waypointIndex);
-                ui.set(buttonId + ".Visible", true);
-                ui.set(labelId + ".Text", wp.getName());
+                Waypoint wp = waypointAt(waypointIndex);
+                rowWaypointIds[i] = wp.getId();
+                set(ui, buttonId + ".Visible", true);
+                String text = distances != null
+                        ? wp.getName() + "  (" + distances.distanceTo(wp) + "m)" : wp.getName();
+                if (selecting) {
+                    text = (selectedIds.contains(wp.getId()) ? "[x] " : "[ ] ") + text;
+                }
+                set(ui, labelId + ".Text", text);
 
                 // Set the waypoint icon color (solid color, not texture - TexturePath can't change at runtime)
-                String iconColor = wp.getIcon().getHexColor();
-                ui.set(iconId + ".Background", iconColor);
+                set(ui, iconId + ".Background", wp.getIcon().getHexColor());
 
                 // Set the waypoint label color to the waypoint's stored color so list matches marker
                 String labelColor = wp.getColor();
                 if (labelColor != null && !labelColor.isEmpty()) {
-                    ui.set(labelId + ".Style.TextColor", labelColor);
+                    set(ui, labelId + ".Style.TextColor", labelColor);
                 }
-
-                // Add click event for this waypoint with its ID
-                events.addEventBinding(CustomUIEventBindingType.Activating,
-                        buttonId,
-                        new EventData().put("Action", "SELECT_WAYPOINT").put("WaypointId", wp.getId()),
-                        false);
             } else {
-                ui.set(buttonId + ".Visible", false);
+                rowWaypointIds[i] = null;
+                set(ui, buttonId + ".Visible", false);
+            }
+        }
+
+        // Add form visibility based on state and the player's waypoint limit
+        boolean canAddMore = config.getWaypoints().size() < config.getMaxWaypoints();
+        set(ui, "#AddWaypointSection.Visible", isAddingWaypoint && canAddMore && !selecting);
+        set(ui, "#AddWaypointButton.Visible", !isAddingWaypoint && canAddMore && !selecting);
+
+        // Select mode
+        set(ui, "#SelectLabel.Text", selecting ? "DONE" : "SELECT");
+        set(ui, "#BulkActions.Visible", selecting);
+        set(ui, "#SelectedLabel.Text", selectedIds.size() + " selected");
+        set(ui, "#InfoLabel.Text", selecting ? "Click waypoints to select them" : "Click a waypoint to edit");
+    }
+
+    /**
+     * Selects every waypoint of the current search/sort, or clears them if all are selected already.
+     */
+    private void toggleSelectAll() {
+        int total = count();
+        List<String> ids = new ArrayList<>(total);
+        for (int i = 0; i < total; i++) {
+            ids.add(waypointAt(i).getId());
+        }
+        if (selectedIds.containsAll(ids)) {
+            ids.forEach(selectedIds::remove);
+        } else {
+            selectedIds.addAll(ids);
+        }
+    }
+
+    /**
+     * Applies an action to the selection as one change: one config mutation, one save and
+     * one map marker sync, however many waypoints are selected.
+     */
+    private void applyBulk(@Nonnull WaypointBulkAction action) {
+        if (selectedIds.isEmpty()) {
+            pushUpdate();
+            return;
+        }
+        // The config is changed before the save completes, so the list can update right away
+        int selected = selectedIds.size();
+        storage.applyBulk(playerRef.getUuid(), new ArrayList<>(selectedIds), action).thenAccept(changed ->
+                System.out.println("[HudMod] " + action.getDisplayName() + " " + selected
+                        + " selected waypoints: " + changed + " " + action.getPastTense()));
+        HudSession.post(playerRef.getUuid(), HudMailbox.SYNC_MAP_MARKERS);
+        selectedIds.clear();
+        pushUpdate();
+    }
+
+    /**
+     * Recomputes the results only if the query, the sort, the waypoints (a new view on every write)
+     * or the distance ranking changed.
+     */
+    private void refreshFilter(@Nonnull WaypointConfig config, @Nullable WaypointDistanceView distances) {
+        WaypointListView listView = config.getListView();
+        boolean byDistance = sortByDistance && distances != null;
+        WaypointDistanceView.Ranking ranking = byDistance
+                ? distances.getRanking(config, storage.getGlobalLayer()) : null;
+        if (listView == view && currentSearchQuery.equals(filteredQuery)
+                && byDistance == filteredByDistance && ranking == filteredRanking) {
+            return;
+        }
+        resultPositions.clear();
+        if (currentSearchQuery.isEmpty()) {
+            results = ranking != null ? ranking.personal() : null;
+        } else {
+            results = config.getNameIndex().search(currentSearchQuery, Integer.MAX_VALUE);
+            if (ranking != null) {
+                // Matches nearest first (waypoints not ranked yet go last)
+                results = new ArrayList<>(results);
+                results.sort(Comparator.comparingInt(wp -> {
+                    int rank = ranking.indexOf(wp.getId());
+                    return rank >= 0 ? rank : Integer.MAX_VALUE;
+                }));
             }
         }
+        if (results != null) {
+            for (int i = 0; i < results.size(); i++) {
+                resultPositions.put(WaypointListView.sortKey(results.get(i)), i);
+            }
+        }
+        view = listView;
+        filteredQuery = currentSearchQuery;
+        filteredByDistance = byDistance;
+        filteredRanking = ranking;
+    }
+
+    private int count() {
+        return results != null ? results.size() : view.size();
+    }
+
+    @Nonnull
+    private Waypoint waypointAt(int index) {
+        return results != null ? results.get(index) : view.get(index);
+    }
+
+    @Nonnull
+    private String keyAt(int index) {
+        return results != null ? WaypointListView.sortKey(results.get(index)) : view.keyAt(index);
+    }
+
+    /**
+     * List index of the cursor: the first waypoint at or after the key by name (binary search),
+     * or the key's place in the results (the first result if it is no longer there).
+     */
+    private int positionOf(@Nonnull String key) {
+        if (results == null) {
+            return view.lowerBound(key);
+        }
+        return resultPositions.getOrDefault(key, 0);
+    }
+
+    /**
+     * Moves the cursor to the first row of a page (clamped to the pages of the current filter).
+     */
+    private void goToPage(int page) {
+        int safePage = Math.max(0, Math.min(page, totalPages - 1));
+        int position = safePage * WAYPOINTS_PER_PAGE;
+        cursorKey = view != null && position < count() ? keyAt(position) : null;
+    }
+
+    private void set(@Nonnull UICommandBuilder ui, @Nonnull String selector, boolean value) {
+        if (!Boolean.valueOf(value).equals(shownValues.put(selector, value))) {
+            ui.set(selector, value);
+        }
+    }
+
+    private void set(@Nonnull UICommandBuilder ui, @Nonnull String selector, @Nonnull String value) {
+        if (!value.equals(shownValues.put(selector, value))) {
+            ui.set(selector, value);
+        }
+    }
+
+    /**
+     * Sends the list properties that changed since the last update (an empty update acknowledges the event).
+     */
+    private void pushUpdate() {
+        UICommandBuilder ui = new UICommandBuilder();
+        updateList(ui);
+        sendUpdate(ui, false);
+    }
+
+    /**
+     * Applies a search once no newer keystroke arrived within {@link #SEARCH_DEBOUNCE_MS}.
+     */
+    private void scheduleSearch(@Nonnull String query) {
+        long sequence = searchSequence.incrementAndGet();
+        HytaleServer.SCHEDULED_EXECUTOR.schedule(() -> {
+            if (searchSequence.get() != sequence) {
+                return; // Superseded by a later keystroke
+            }
+            // Back on the world thread
+            HudSession.post(playerRef.getUuid(), () -> {
+                if (closed || searchSequence.get() != sequence) {
+                    return;
+                }
+                currentSearchQuery = query;
+                cursorKey = null;
+                pushUpdate();
+            });
+        }, SEARCH_DEBOUNCE_MS, TimeUnit.MILLISECONDS);
     }
 
     @SuppressWarnings("null")
@@ -225,57 +497,83 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
 
         switch (action) {
             case SEARCH:
-                // Search - reopen page with new search query (reset to page 0)
-                String newQuery = data.searchText != null ? data.searchText : "";
-                player.getPageManager().openCustomPage(ref, store,
-                        new WaypointListPage(this.playerRef, this.storage, newQuery, false, 0));
+                // Search - applied (from page 0) once typing pauses
+                scheduleSearch(data.searchText != null ? data.searchText : "");
+                sendUpdate();
                 break;
 
             case SHOW_ADD_FORM:
-                // Show the add waypoint form by reopening with addMode flag
-                player.getPageManager().openCustomPage(ref, store,
-                        new WaypointListPage(this.playerRef, this.storage, currentSearchQuery, true, currentPage));
+                // Show the add waypoint form
+                isAddingWaypoint = true;
+                pushUpdate();
                 break;
 
             case CONFIRM_ADD:
                 // Add new waypoint with current player position
                 String newName = data.newName != null ? data.newName.trim() : "";
                 if (!newName.isEmpty()) {
-                    addWaypoint(ref, store, newName);
+                    Waypoint added = addWaypoint(ref, store, newName);
+                    if (added != null) {
+                        // Show the page the new waypoint landed on
+                        cursorKey = WaypointListView.sortKey(added);
+                    }
                 }
-                // Reopen page without add mode to show updated list
-                player.getPageManager().openCustomPage(ref, store,
-                        new WaypointListPage(this.playerRef, this.storage, currentSearchQuery, false, currentPage));
+                // Hide the add form and show the updated list
+                isAddingWaypoint = false;
+                pushUpdate();
                 break;
 
             case CANCEL_ADD:
-                // Hide the add form by reopening without add mode
-                player.getPageManager().openCustomPage(ref, store,
-                        new WaypointListPage(this.playerRef, this.storage, currentSearchQuery, false, currentPage));
+                // Hide the add form
+                isAddingWaypoint = false;
+                pushUpdate();
+                break;
+
+            case TOGGLE_SORT:
+                // Switch between name order and nearest first, from the first page
+                sortByDistance = !sortByDistance;
+                cursorKey = null;
+                pushUpdate();
+                break;
+
+            case FIRST_PAGE:
+                goToPage(0);
+                isAddingWaypoint = false;
+                pushUpdate();
                 break;
 
             case PREV_PAGE:
+                goToPage(currentPage - 1);
+                isAddingWaypoint = false;
+                pushUpdate();
+                break;
+
             case NEXT_PAGE:
-                // Deprecated - use GO_TO_PAGE instead
+                goToPage(currentPage + 1);
+                isAddingWaypoint = false;
+                pushUpdate();
+                break;
+
+            case LAST_PAGE:
+                goToPage(totalPages - 1);
+                isAddingWaypoint = false;
+                pushUpdate();
                 break;
 
             case GO_TO_PAGE:
-                // Go to specific page number
-                int targetPage = 0;
-                if (data.pageNum != null) {
-                    try {
-                        targetPage = Integer.parseInt(data.pageNum);
-                    } catch (NumberFormatException e) {
-                        targetPage = 0;
-                    }
+                // Go to the page shown on the clicked numbered button
+                int slot = parseIndex(data.pageSlot, PAGE_SLOTS);
+                if (slot >= 0) {
+                    goToPage(slotPages[slot]);
                 }
-                player.getPageManager().openCustomPage(ref, store,
-                        new WaypointListPage(this.playerRef, this.storage, currentSearchQuery, false, targetPage));
+                isAddingWaypoint = false;
+                pushUpdate();
                 break;
 
             case BACK:
                 // Close the page (go back to game)
                 player.getPageManager().setPage(ref, store, Page.None);
+                HudSession.pageClosed(playerRef.getUuid(), this);
                 break;
 
             case SETTINGS:
@@ -284,22 +582,81 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
                         new WaypointSettingsPage(this.playerRef, this.storage));
                 break;
 
+            case TOGGLE_SELECT:
+                // Enter or leave select mode (leaving drops the selection)
+                selecting = !selecting;
+                selectedIds.clear();
+                isAddingWaypoint = false;
+                pushUpdate();
+                break;
+
+            case SELECT_ALL:
+                if (selecting) {
+                    toggleSelectAll();
+                }
+                pushUpdate();
+                break;
+
+            case BULK_HIDE:
+                applyBulk(WaypointBulkAction.HIDE);
+                break;
+
+            case BULK_SHOW:
+                applyBulk(WaypointBulkAction.SHOW);
+                break;
+
+            case BULK_REMOVE:
+                applyBulk(WaypointBulkAction.REMOVE);
+                break;
+
             case SELECT_WAYPOINT:
-                // Open edit page for selected waypoint
-                if (data.waypointId != null && !data.waypointId.isEmpty()) {
-                    @SuppressWarnings("")
-                    Waypoint waypoint = storage.getWaypoint(playerRef.getUuid(), data.waypointId);
-                    if (waypoint != null) {
-                        // Check if player is an operator (has teleport permission)
-                        boolean isOperator = checkOperatorStatus(player);
-                        player.getPageManager().openCustomPage(ref, store,
-                                new WaypointEditPage(this.playerRef, this.storage, waypoint, isOperator));
+                String waypointId = rowWaypointId(data.row);
+                if (selecting) {
+                    // Toggle the row's waypoint in the selection
+                    if (waypointId != null && !selectedIds.remove(waypointId)) {
+                        selectedIds.add(waypointId);
                     }
+                    pushUpdate();
+                    break;
+                }
+                // Open edit page for the waypoint shown in the clicked row
+                Waypoint waypoint = waypointId != null ? storage.getWaypoint(playerRef.getUuid(), waypointId) : null;
+                if (waypoint != null) {
+                    // Check if player is an operator (has teleport permission)
+                    boolean isOperator = checkOperatorStatus(player);
+                    player.getPageManager().openCustomPage(ref, store,
+                            new WaypointEditPage(this.playerRef, this.storage, waypoint, isOperator));
+                } else {
+                    sendUpdate();
                 }
                 break;
         }
     }
 
+    /**
+     * Resolves a row index from an event to the waypoint id shown in that row.
+     */
+    @Nullable
+    private String rowWaypointId(@Nullable String row) {
+        int index = parseIndex(row, WAYPOINTS_PER_PAGE);
+        return index >= 0 ? rowWaypointIds[index] : null;
+    }
+
+    /**
+     * Parses a row or slot index from an event, or -1 if it is missing or out of range.
+     */
+    private static int parseIndex(@Nullable String raw, int limit) {
+        if (raw == null) {
+            return -1;
+        }
+        try {
+            int index = Integer.parseInt(raw);
+            return index >= 0 && index < limit ? index : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
     /**
      * Check if the player has operator status.
      * This can be customized based on your server's permission system.
@@ -315,9 +672,14 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
         return true; // Allow teleport for all players by default
     }
 
-    private void addWaypoint(@Nonnull Ref<EntityStore> ref,
-                             @Nonnull Store<EntityStore> store,
-                             @Nonnull String name) {
+    /**
+     * Adds a waypoint at the player's position.
+     * @return the waypoint, or null if it could not be added
+     */
+    @Nullable
+    private Waypoint addWaypoint(@Nonnull Ref<EntityStore> ref,
+                                 @Nonnull Store<EntityStore> store,
+                                 @Nonnull String name) {
         try {
             // Get player's current position using TransformComponent
             TransformComponent transform = store.getComponent(ref, TransformComponent.getComponentType());
@@ -331,14 +693,17 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
                 Waypoint waypoint = new Waypoint(name, x, y, z, WaypointCategory.OTHER);
                 waypoint.setVisible(true);
 
-                // Add to storage
+                // Add to storage (the config is updated before the save completes)
                 storage.addWaypoint(playerRef.getUuid(), waypoint);
-
-                System.out.println("[HudMod] Added waypoint '" + name + "' at " + x + ", " + y + ", " + z);
+                if (storage.getWaypoint(playerRef.getUuid(), waypoint.getId()) != null) {
+                    System.out.println("[HudMod] Added waypoint '" + name + "' at " + x + ", " + y + ", " + z);
+                    return waypoint;
+                }
             }
         } catch (Exception e) {
             System.out.println("[HudMod] Error adding waypoint: " + e.getMessage());
         }
+        return null;
     }
 
     private enum Action {
@@ -349,9 +714,17 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
         BACK,
         SETTINGS,
         SELECT_WAYPOINT,
+        FIRST_PAGE,
         PREV_PAGE,
         NEXT_PAGE,
-        GO_TO_PAGE;
+        LAST_PAGE,
+        GO_TO_PAGE,
+        TOGGLE_SORT,
+        TOGGLE_SELECT,
+        SELECT_ALL,
+        BULK_HIDE,
+        BULK_SHOW,
+        BULK_REMOVE;
 
         static Action from(String raw) {
             if (raw == null) {
@@ -365,14 +738,21 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
         }
     }
 
+    @Override
+    public void onDismiss(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
+        closed = true;
+        // Resume HUD updates
+        HudSession.pageClosed(playerRef.getUuid(), this);
+    }
+
     public static class WaypointListData {
         public static final BuilderCodec<WaypointListData> CODEC;
 
         private String action;
         private String searchText;
-        private String waypointId;
+        private String row;
         private String newName;
-        private String pageNum;
+        private String pageSlot;
 
         static {
             CODEC = BuilderCodec.builder(WaypointListData.class, WaypointListData::new)
@@ -384,17 +764,17 @@ public class WaypointListPage extends InteractiveCustomUIPage<WaypointListPage.W
                             (data, value) -> data.searchText = value,
                             (data) -> data.searchText)
                     .add()
-                    .append(new KeyedCodec<>("WaypointId", Codec.STRING),
-                            (data, value) -> data.waypointId = value,
-                            (data) -> data.waypointId)
+                    .append(new KeyedCodec<>("Row", Codec.STRING),
+                            (data, value) -> data.row = value,
+                            (data) -> data.row)
                     .add()
                     .append(new KeyedCodec<>("@NewName", Codec.STRING),
                             (data, value) -> data.newName = value,
                             (data) -> data.newName)
                     .add()
-                    .append(new KeyedCodec<>("PageNum", Codec.STRING),
-                            (data, value) -> data.pageNum = value,
-                            (data) -> data.pageNum)
+                    .append(new KeyedCodec<>("PageSlot", Codec.STRING),
+                            (data, value) -> data.pageSlot = value,
+                            (data) -> data.pageSlot)
                     .add()
                     .build();
         }
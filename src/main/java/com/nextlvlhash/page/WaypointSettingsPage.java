@@ -15,8 +15,10 @@ import com.hypixel.hytale.server.core.ui.builder.UICommandBuilder;
 import com.hypixel.hytale.server.core.ui.builder.UIEventBuilder;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.ColorDepth;
 import com.nextlvlhash.hud.HudPosition;
 import com.nextlvlhash.hud.HudRefreshHelper;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.storage.WaypointStorage;
 import com.nextlvlhash.waypoint.WaypointConfig;
 
@@ -42,6 +44,9 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
                       @Nonnull UICommandBuilder ui,
                       @Nonnull UIEventBuilder events,
                       @Nonnull Store<EntityStore> store) {
+        // Pause HUD updates while this page is open
+        HudSession.pageOpened(playerRef.getUuid(), this);
+
         ui.append("hudmenu/waypointsettings.ui");
 
         // Get current config
@@ -59,6 +64,18 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
         ui.set("#ZoomSlider.Value", zoomValue);
         ui.set("#ZoomValue.Text", zoomValue + "x");
 
+        // Set minimap layout value
+        ui.set("#MapLayoutValue.Text", config.getMinimapLayout().getDisplayName());
+
+        // Set color depth value (no override = server default)
+        ColorDepth depthOverride = config.getColorDepthOverride();
+        ui.set("#ColorDepthValue.Text", depthOverride != null
+                ? depthOverride.getDisplayName()
+                : "Server: " + storage.getServerConfig().getDefaultColorDepth().getDisplayName());
+
+        // Set minimap theme value
+        ui.set("#ThemeValue.Text", config.getMinimapTheme().getDisplayName());
+
         // Zoom slider event binding
         events.addEventBinding(CustomUIEventBindingType.ValueChanged,
                 "#ZoomSlider",
@@ -71,6 +88,24 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
                 new EventData().put("Action", "TOGGLE_POSITION"),
                 false);
 
+        // Toggle minimap layout button
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#ToggleLayoutButton",
+                new EventData().put("Action", "TOGGLE_LAYOUT"),
+                false);
+
+        // Toggle color depth button
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#ToggleColorDepthButton",
+                new EventData().put("Action", "TOGGLE_COLOR_DEPTH"),
+                false);
+
+        // Toggle minimap theme button
+        events.addEventBinding(CustomUIEventBindingType.Activating,
+                "#ToggleThemeButton",
+                new EventData().put("Action", "TOGGLE_THEME"),
+                false);
+
         // Toggle death waypoint button
         events.addEventBinding(CustomUIEventBindingType.Activating,
                 "#ToggleDeathWaypointButton",
@@ -116,8 +151,8 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
                     int newZoom = data.zoomValue.intValue();
                     config.setMinimapZoom(newZoom);
                     
-                    // Refresh the HUD to apply new zoom setting immediately
-                    HudRefreshHelper.refreshHud(ref, store, playerRef, storage);
+                    // Apply the new zoom to the live HUD on its next tick
+                    HudRefreshHelper.markSettingsChanged(playerRef.getUuid());
                     
                     // Reopen page to update display
                     player.getPageManager().openCustomPage(ref, store,
@@ -134,6 +169,42 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
                         new WaypointSettingsPage(this.playerRef, this.storage));
                 break;
 
+            case TOGGLE_LAYOUT:
+                // Cycle minimap layout (Linear <-> Foveated)
+                config.cycleMinimapLayout();
+
+                // Apply the new layout to the live HUD on its next tick
+                HudRefreshHelper.markSettingsChanged(playerRef.getUuid());
+
+                // Reopen page to show update
+                player.getPageManager().openCustomPage(ref, store,
+                        new WaypointSettingsPage(this.playerRef, this.storage));
+                break;
+
+            case TOGGLE_COLOR_DEPTH:
+                // Cycle color depth (Server default -> 6-bit -> 9-bit -> 12-bit -> Palette -> Palette+Dither)
+                config.cycleColorDepth();
+
+                // Apply the new color depth to the live HUD on its next tick
+                HudRefreshHelper.markSettingsChanged(playerRef.getUuid());
+
+                // Reopen page to show update
+                player.getPageManager().openCustomPage(ref, store,
+                        new WaypointSettingsPage(this.playerRef, this.storage));
+                break;
+
+            case TOGGLE_THEME:
+                // Cycle minimap theme (Default -> Colorblind -> High Contrast)
+                config.cycleMinimapTheme();
+
+                // Apply the new theme to the live HUD on its next tick
+                HudRefreshHelper.markSettingsChanged(playerRef.getUuid());
+
+                // Reopen page to show update
+                player.getPageManager().openCustomPage(ref, store,
+                        new WaypointSettingsPage(this.playerRef, this.storage));
+                break;
+
             case TOGGLE_DEATH_WP:
                 // Toggle auto death waypoint
                 config.setAutoDeathWaypoint(!config.isAutoDeathWaypoint());
@@ -147,24 +218,25 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
                 // Save config
                 WaypointConfig config2 = storage.getWaypointConfig(playerRef.getUuid());
                 storage.saveWaypointConfig(playerRef.getUuid(), config2).thenAccept(v -> {
-                    player.sendMessage(Message.raw("§aSettings saved!"));
-                    
-                    // Refresh the HUD to apply new position setting
-                    HudRefreshHelper.refreshHud(ref, store, playerRef, storage);
-                    
-                    // Return to main menu
-                    player.getPageManager().openCustomPage(ref, store,
-                            new HudMenuPage(this.playerRef, this.storage));
+                    // Apply settings in place; the HUD is only rebuilt if its position changed
+                    HudRefreshHelper.applySettings(playerRef);
+
+                    // Back on the world thread: confirm and return to main menu
+                    HudSession.post(playerRef.getUuid(), () -> {
+                        player.sendMessage(Message.raw("§aSettings saved!"));
+                        player.getPageManager().openCustomPage(ref, store,
+                                new HudMenuPage(this.playerRef, this.storage));
+                    });
                 });
                 sendUpdate();
                 break;
 
             case BACK:
-                // Save config and refresh HUD before returning to main menu
+                // Save config and apply settings before returning to main menu
                 WaypointConfig configToSave = storage.getWaypointConfig(playerRef.getUuid());
                 storage.saveWaypointConfig(playerRef.getUuid(), configToSave).thenAccept(v -> {
-                    // Refresh the HUD to apply new position setting
-                    HudRefreshHelper.refreshHud(ref, store, playerRef, storage);
+                    // Apply settings in place; the HUD is only rebuilt if its position changed
+                    HudRefreshHelper.applySettings(playerRef);
                 });
                 // Return to main menu
                 player.getPageManager().openCustomPage(ref, store,
@@ -176,6 +248,9 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
     private enum Action {
         ZOOM_CHANGED,
         TOGGLE_POSITION,
+        TOGGLE_LAYOUT,
+        TOGGLE_COLOR_DEPTH,
+        TOGGLE_THEME,
         TOGGLE_DEATH_WP,
         SAVE,
         BACK;
@@ -192,6 +267,12 @@ public class WaypointSettingsPage extends InteractiveCustomUIPage<WaypointSettin
         }
     }
 
+    @Override
+    public void onDismiss(@Nonnull Ref<EntityStore> ref, @Nonnull Store<EntityStore> store) {
+        // Resume HUD updates
+        HudSession.pageClosed(playerRef.getUuid(), this);
+    }
+
     public static class SettingsData {
         public static final BuilderCodec<SettingsData> CODEC;
 
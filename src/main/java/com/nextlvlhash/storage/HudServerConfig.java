@@ -0,0 +1,86 @@
+package com.nextlvlhash.storage;
+
+import com.hypixel.hytale.codec.Codec;
+import com.hypixel.hytale.codec.KeyedCodec;
+import com.hypixel.hytale.codec.builder.BuilderCodec;
+import com.nextlvlhash.hud.ColorDepth;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Server-wide HUD settings (config.json in the plugin data directory).
+ * Players can override individual values in their own {@link com.nextlvlhash.waypoint.WaypointConfig}.
+ */
+public class HudServerConfig {
+    public static final BuilderCodec<HudServerConfig> CODEC;
+
+    private String defaultColorDepth; // Stored as ColorDepth enum name (e.g., "BITS_9")
+    private boolean nightTint; // Tint minimaps by world time of day
+    private double renderCoreShare; // Share of CPU cores computing HUD frames off the world threads (0 = off)
+    private int markerStreamRadius; // Blocks around the player's region with native map markers (0 = all)
+
+    public HudServerConfig() {
+        this.defaultColorDepth = ColorDepth.BITS_9.name();
+        this.nightTint = true;
+        this.renderCoreShare = 0.25;
+        this.markerStreamRadius = 0;
+    }
+
+    /**
+     * Gets the color depth used by players without their own setting.
+     */
+    @Nonnull
+    public ColorDepth getDefaultColorDepth() {
+        ColorDepth depth = ColorDepth.fromString(defaultColorDepth);
+        return depth != null ? depth : ColorDepth.BITS_9;
+    }
+
+    public void setDefaultColorDepth(@Nonnull ColorDepth depth) {
+        this.defaultColorDepth = depth.name();
+    }
+
+    public boolean isNightTint() {
+        return nightTint;
+    }
+
+    public void setNightTint(boolean nightTint) {
+        this.nightTint = nightTint;
+    }
+
+    /**
+     * Gets the share of CPU cores (0.0-1.0) used to compute HUD frames in parallel.
+     * 0 renders every frame on its world thread.
+     */
+    public double getRenderCoreShare() {
+        return Math.max(0.0, Math.min(1.0, renderCoreShare));
+    }
+
+    public void setRenderCoreShare(double renderCoreShare) {
+        this.renderCoreShare = renderCoreShare;
+    }
+
+    /**
+     * Gets the radius (blocks) around the player's region within which waypoints are sent to the
+     * native world map. 0 sends every waypoint.
+     */
+    public int getMarkerStreamRadius() {
+        return Math.max(0, markerStreamRadius);
+    }
+
+    public void setMarkerStreamRadius(int markerStreamRadius) {
+        this.markerStreamRadius = markerStreamRadius;
+    }
+
+    static {
+        CODEC = BuilderCodec.builder(HudServerConfig.class, HudServerConfig::new)
+            .append(new KeyedCodec<>("DefaultColorDepth", Codec.STRING),
+                    (o, i) -> o.defaultColorDepth = i, (o) -> o.defaultColorDepth).add()
+            .append(new KeyedCodec<>("NightTint", Codec.BOOLEAN),
+                    (o, i) -> o.nightTint = i, (o) -> o.nightTint).add()
+            .append(new KeyedCodec<>("RenderCoreShare", Codec.DOUBLE),
+                    (o, i) -> o.renderCoreShare = i, (o) -> o.renderCoreShare).add()
+            .append(new KeyedCodec<>("MarkerStreamRadius", Codec.INTEGER),
+                    (o, i) -> o.markerStreamRadius = i, (o) -> o.markerStreamRadius).add()
+            .build();
+    }
+}
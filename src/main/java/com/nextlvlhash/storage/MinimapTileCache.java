@@ -0,0 +1,550 @@
+package com.nextlvlhash.storage;
+
+import com.hypixel.hytale.logger.HytaleLogger;
+import com.hypixel.hytale.protocol.packets.worldmap.MapImage;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.worldmap.WorldMapManager;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Persistent per-world cache of minimap colors, so minimaps are populated right after a restart
+ * instead of waiting for WorldMapManager to reload every chunk image.
+ * <p>
+ * Each region file covers 32x32 chunks and is memory-mapped; only the most recently used regions stay
+ * mapped. Layout:
+ * <pre>
+ * [4 bytes]               magic "HHTC"
+ * [4 bytes]               format version
+ * [1024 bytes]            presence flag per chunk (1 = stored)
+ * [1024 x 2048 bytes]     per chunk: 32x32 colors as RGB444 shorts, row-major by Z then X
+ * </pre>
+ * Files with another magic or version are discarded and rebuilt.
+ * Chunks are written as their map images arrive. A surface block change evicts the chunk's image from
+ * WorldMapManager and starts a new generation for the chunk: the outdated image is refused and
+ * images requested before the change are dropped when they arrive. The old colors stay in the cache
+ * until the regenerated image replaces them, and a chunk is regenerated at most once per
+ * {@link #REQUEST_INTERVAL_MS}; changes within that window wait for the next one. The minimap copies the chunks it shows into its
+ * frame on the world thread; image callbacks may write from other threads, so every access to a
+ * chunk's bytes holds its region buffer's lock.
+ */
+public class MinimapTileCache {
+    private static final HytaleLogger LOGGER = HytaleLogger.forEnclosingClass();
+
+    private static final int CHUNK_SIZE = 32;   // Blocks per chunk side
+    private static final int REGION_SIZE = 32;  // Chunks per region side
+    private static final int CHUNK_BYTES = CHUNK_SIZE * CHUNK_SIZE * 2;
+    private static final int MAGIC = 0x48485443;  // "HHTC"
+    private static final int FORMAT_VERSION = 1;
+    private static final int PRESENCE_OFFSET = 8; // After magic and version
+    private static final int DATA_OFFSET = PRESENCE_OFFSET + REGION_SIZE * REGION_SIZE;
+    private static final long REGION_BYTES = DATA_OFFSET + (long) REGION_SIZE * REGION_SIZE * CHUNK_BYTES;
+    private static final long REQUEST_INTERVAL_MS = 30_000L; // Min time between image requests per chunk
+    private static final int MAX_TRACKED_CHUNKS = 16_384;    // Per-chunk bookkeeping entries before pruning
+    private static final int MAX_MAPPED_REGIONS = 32;        // 2 MB each; least recently used are released
+    private static final int MAX_MISSING_REGIONS = 4_096;    // Remembered absent region files before reset
+    private static final int PREWARM_RADIUS = 2;             // Chunks around each prewarm point
+
+    private static final ConcurrentHashMap<String, MinimapTileCache> CACHES = new ConcurrentHashMap<>();
+    private static final AtomicLong GENERATIONS = new AtomicLong(); // Never reused, even after pruning
+    private static volatile Path cacheRoot;
+
+    private final String worldName;
+    private final Path directory;
+    private final ConcurrentHashMap<Long, MappedRegion> regions = new ConcurrentHashMap<>();
+    private final Set<Long> missingRegions = ConcurrentHashMap.newKeySet(); // No file on disk yet
+    private final ConcurrentHashMap<Long, ChunkState> chunkStates = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Long, Long> lastRequests = new ConcurrentHashMap<>();    // chunk -> request time
+    private final Set<Long> dirtyChunks = ConcurrentHashMap.newKeySet(); // Changed since the last flush
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final AtomicBoolean retryScheduled = new AtomicBoolean(); // Throttled dirty chunks wait for a delayed flush
+    private final AtomicLong invalidatedChunks = new AtomicLong();
+
+    private MinimapTileCache(@Nonnull String worldName, @Nonnull Path directory) {
+        this.worldName = worldName;
+        this.directory = directory;
+    }
+
+    /**
+     * A mapped region file and when it was last used, for releasing the least recently used one.
+     */
+    private static final class MappedRegion {
+        private final MappedByteBuffer buffer;
+        private volatile long lastUsed;
+
+        private MappedRegion(@Nonnull MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.lastUsed = System.nanoTime();
+        }
+    }
+
+    /**
+     * The image last written for a chunk - or, once invalidated, the outdated image to refuse -
+     * and the generation of that change.
+     * The image is weakly held: once WorldMapManager drops it, the entry can be pruned.
+     */
+    private static final class ChunkState {
+        private final WeakReference<MapImage> image;
+        private final boolean invalidated;
+        private final long generation;
+
+        private ChunkState(@Nullable MapImage image, boolean invalidated) {
+            this.image = new WeakReference<>(image);
+            this.invalidated = invalidated;
+            this.generation = GENERATIONS.incrementAndGet();
+        }
+    }
+
+    /**
+     * Sets the directory that holds all world caches (called once at plugin setup).
+     */
+    public static void init(@Nonnull Path dataDirectory) {
+        cacheRoot = dataDirectory.resolve("tile-cache");
+        try {
+            Files.createDirectories(cacheRoot);
+            LOGGER.atInfo().log("Minimap tile cache at: %s", cacheRoot);
+        } catch (IOException e) {
+            LOGGER.atSevere().log("Failed to create tile cache directory: %s", e.getMessage());
+            cacheRoot = null;
+        }
+    }
+
+    /**
+     * Gets the cache for a world.
+     * @return the cache, or null if the cache is not initialized
+     */
+    @Nullable
+    public static MinimapTileCache forWorld(@Nonnull World world) {
+        Path root = cacheRoot;
+        String name = world.getName();
+        if (root == null || name == null) {
+            return null;
+        }
+        return CACHES.computeIfAbsent(name, n -> new MinimapTileCache(n, root.resolve(sanitize(n))));
+    }
+
+    /**
+     * Flushes and drops all mapped regions (called on plugin shutdown).
+     */
+    public static void closeAll() {
+        for (MinimapTileCache cache : CACHES.values()) {
+            cache.flush();
+        }
+        CACHES.clear();
+    }
+
+    /**
+     * Copies a chunk's cached colors.
+     * @return 32x32 colors as 0xRRGGBB (row-major by Z then X), or null if the chunk is not cached
+     */
+    @Nullable
+    public int[] copyChunk(int chunkX, int chunkZ) {
+        MappedByteBuffer region = getRegion(chunkX, chunkZ, false);
+        if (region == null) {
+            return null;
+        }
+        int slot = chunkSlot(chunkX, chunkZ);
+        int base = DATA_OFFSET + slot * CHUNK_BYTES;
+        int[] colors = new int[CHUNK_SIZE * CHUNK_SIZE];
+        // Region buffers are written by image callbacks on other threads - copy under the region's lock
+        synchronized (region) {
+            if (region.get(PRESENCE_OFFSET + slot) == 0) {
+                return null;
+            }
+            for (int i = 0; i < colors.length; i++) {
+                int v = region.getShort(base + i * 2) & 0xFFF;
+                colors[i] = (((v >> 8) & 0xF) * 17 << 16) | (((v >> 4) & 0xF) * 17 << 8) | ((v & 0xF) * 17);
+            }
+        }
+        return colors;
+    }
+
+    /**
+     * Generation of a chunk's cached colors; changes whenever a new image is stored or the chunk is
+     * invalidated. Colors read from the cache or an image stay current while this is unchanged.
+     * @return the generation, or 0 if the chunk is not tracked
+     */
+    public long getGeneration(int chunkX, int chunkZ) {
+        ChunkState state = chunkStates.get(chunkKey(chunkX, chunkZ));
+        return state != null ? state.generation : 0L;
+    }
+
+    /**
+     * Whether an image was outdated by a block change in its chunk and must not be shown.
+     */
+    public boolean isInvalidated(int chunkX, int chunkZ, @Nonnull MapImage image) {
+        ChunkState state = chunkStates.get(chunkKey(chunkX, chunkZ));
+        return state != null && state.invalidated && state.image.get() == image;
+    }
+
+    /**
+     * Stores a chunk image unless this exact image object was already stored or was invalidated.
+     */
+    public void store(int chunkX, int chunkZ, @Nonnull MapImage image) {
+        if (image.data == null || image.width <= 0 || image.height <= 0) {
+            return;
+        }
+        long key = chunkKey(chunkX, chunkZ);
+        ChunkState previous = chunkStates.get(key);
+        if (previous != null && previous.image.get() == image) {
+            return;
+        }
+        chunkStates.put(key, new ChunkState(image, false));
+        if (chunkStates.size() > MAX_TRACKED_CHUNKS) {
+            pruneTracking();
+        }
+
+        MappedByteBuffer region = getRegion(chunkX, chunkZ, true);
+        if (region == null) {
+            return;
+        }
+        int slot = chunkSlot(chunkX, chunkZ);
+        int base = DATA_OFFSET + slot * CHUNK_BYTES;
+        synchronized (region) {
+            for (int localZ = 0; localZ < CHUNK_SIZE; localZ++) {
+                int imgZ = Math.min(image.height - 1, localZ * image.height / CHUNK_SIZE);
+                for (int localX = 0; localX < CHUNK_SIZE; localX++) {
+                    int imgX = Math.min(image.width - 1, localX * image.width / CHUNK_SIZE);
+                    int idx = imgZ * image.width + imgX;
+                    int rgba = idx < image.data.length ? image.data[idx] : 0;
+                    // RGBA -> RGB444
+                    int rgb444 = (((rgba >>> 28) & 0xF) << 8) | (((rgba >>> 20) & 0xF) << 4) | ((rgba >>> 12) & 0xF);
+                    region.putShort(base + (localZ * CHUNK_SIZE + localX) * 2, (short) rgb444);
+                }
+            }
+            region.put(PRESENCE_OFFSET + slot, (byte) 1);
+        }
+    }
+
+    /**
+     * Drops bookkeeping for images WorldMapManager no longer holds and for expired request throttles.
+     * If the maps are still large afterwards they are cleared - at worst a chunk is written or
+     * requested once more.
+     */
+    private void pruneTracking() {
+        long now = System.currentTimeMillis();
+        chunkStates.values().removeIf(state -> state.image.get() == null);
+        lastRequests.values().removeIf(time -> now - time >= REQUEST_INTERVAL_MS);
+        if (chunkStates.size() > MAX_TRACKED_CHUNKS / 2 || lastRequests.size() > MAX_TRACKED_CHUNKS / 2) {
+            LOGGER.atInfo().log("Resetting tile cache tracking for %s (%d images, %d requests)",
+                    worldName, chunkStates.size(), lastRequests.size());
+            // Keep invalidations - forgetting one would let its outdated image back in
+            chunkStates.values().removeIf(state -> !state.invalidated);
+            lastRequests.clear();
+        }
+    }
+
+    /**
+     * Marks the chunk containing a changed block as stale.
+     * Dirty chunks are collected and invalidated together once per world tick.
+     */
+    public void markBlockChanged(@Nonnull World world, int blockX, int blockZ) {
+        dirtyChunks.add(chunkKey(Math.floorDiv(blockX, CHUNK_SIZE), Math.floorDiv(blockZ, CHUNK_SIZE)));
+        if (flushScheduled.compareAndSet(false, true)) {
+            world.execute(() -> flushDirty(world));
+        }
+    }
+
+    /**
+     * Number of chunks invalidated by block changes since startup.
+     */
+    public long getInvalidatedChunkCount() {
+        return invalidatedChunks.get();
+    }
+
+    /**
+     * Invalidates dirty chunks: evicts their images from WorldMapManager so they are regenerated and
+     * requests fresh images. Chunks requested within {@link #REQUEST_INTERVAL_MS} stay dirty and are
+     * retried once their throttle expires.
+     */
+    private void flushDirty(@Nonnull World world) {
+        flushScheduled.set(false);
+        WorldMapManager mapManager = world.getWorldMapManager();
+        long now = System.currentTimeMillis();
+        long retryInMs = Long.MAX_VALUE;
+        LongSet chunks = new LongOpenHashSet(); // Keys packed like ChunkUtil.indexChunk
+        for (Iterator<Long> it = dirtyChunks.iterator(); it.hasNext(); ) {
+            long key = it.next();
+            Long last = lastRequests.get(key);
+            if (last != null && now - last < REQUEST_INTERVAL_MS) {
+                retryInMs = Math.min(retryInMs, REQUEST_INTERVAL_MS - (now - last));
+                continue;
+            }
+            it.remove();
+            int chunkX = (int) (key >> 32);
+            int chunkZ = (int) key;
+
+            // Remember the outdated image so neither a minimap nor a late callback stores it again.
+            // Its colors stay in the cache until the regenerated image is stored.
+            MapImage outdated = mapManager != null ? mapManager.getImageIfInMemory(chunkX, chunkZ) : null;
+            if (outdated == null) {
+                ChunkState previous = chunkStates.get(key);
+                outdated = previous != null ? previous.image.get() : null;
+            }
+            chunkStates.put(key, new ChunkState(outdated, true));
+            invalidatedChunks.incrementAndGet();
+            chunks.add(key);
+        }
+
+        if (retryInMs != Long.MAX_VALUE && retryScheduled.compareAndSet(false, true)) {
+            CompletableFuture.delayedExecutor(retryInMs, TimeUnit.MILLISECONDS).execute(() -> {
+                retryScheduled.set(false);
+                if (world.isAlive() && flushScheduled.compareAndSet(false, true)) {
+                    world.execute(() -> flushDirty(world));
+                }
+            });
+        }
+        if (mapManager == null || chunks.isEmpty()) {
+            return;
+        }
+
+        // Evict the in-memory images, then fetch regenerated ones
+        mapManager.clearImagesInChunks(chunks);
+        for (long key : chunks) {
+            requestImage(mapManager, (int) (key >> 32), (int) key);
+        }
+    }
+
+    /**
+     * Asks WorldMapManager for a chunk image, at most once per {@link #REQUEST_INTERVAL_MS} per chunk.
+     * The image is written to the cache when it arrives.
+     */
+    public void requestImage(@Nonnull WorldMapManager mapManager, int chunkX, int chunkZ) {
+        long key = chunkKey(chunkX, chunkZ);
+        long now = System.currentTimeMillis();
+        Long last = lastRequests.get(key);
+        if (last != null && now - last < REQUEST_INTERVAL_MS) {
+            return;
+        }
+        lastRequests.put(key, now);
+        if (lastRequests.size() > MAX_TRACKED_CHUNKS) {
+            pruneTracking();
+        }
+
+        // If the chunk changed meanwhile, this image is outdated or already superseded
+        long generation = getGeneration(chunkX, chunkZ);
+        CompletableFuture<MapImage> future = mapManager.getImageAsync(chunkX, chunkZ);
+        if (future != null) {
+            future.thenAccept(image -> {
+                if (image != null && getGeneration(chunkX, chunkZ) == generation) {
+                    store(chunkX, chunkZ, image);
+                }
+            });
+        }
+    }
+
+    /**
+     * Loads uncached chunks around the given block positions, one chunk at a time on the world thread.
+     * @param points block positions as {x, z}
+     */
+    @Nonnull
+    public CompletableFuture<Void> prewarm(@Nonnull World world, @Nonnull List<int[]> points) {
+        CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+        int queued = 0;
+        Set<Long> seen = new HashSet<>();
+        for (int[] point : points) {
+            int centerX = Math.floorDiv(point[0], CHUNK_SIZE);
+            int centerZ = Math.floorDiv(point[1], CHUNK_SIZE);
+            for (int dz = -PREWARM_RADIUS; dz <= PREWARM_RADIUS; dz++) {
+                for (int dx = -PREWARM_RADIUS; dx <= PREWARM_RADIUS; dx++) {
+                    int chunkX = centerX + dx;
+                    int chunkZ = centerZ + dz;
+                    if (!seen.add(chunkKey(chunkX, chunkZ)) || isCached(chunkX, chunkZ)) {
+                        continue;
+                    }
+                    chain = chain.thenCompose(v -> prewarmChunk(world, chunkX, chunkZ));
+                    queued++;
+                }
+            }
+        }
+        int total = queued;
+        return chain.thenRun(() -> LOGGER.atInfo().log("Prewarmed %d minimap chunks for world %s", total, worldName));
+    }
+
+    private CompletableFuture<Void> prewarmChunk(@Nonnull World world, int chunkX, int chunkZ) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        if (!world.isAlive()) {
+            done.complete(null);
+            return done;
+        }
+        world.execute(() -> {
+            WorldMapManager mapManager = world.getWorldMapManager();
+            CompletableFuture<MapImage> future = mapManager != null ? mapManager.getImageAsync(chunkX, chunkZ) : null;
+            if (future == null) {
+                done.complete(null);
+                return;
+            }
+            future.whenComplete((image, throwable) -> {
+                if (image != null) {
+                    store(chunkX, chunkZ, image);
+                }
+                done.complete(null);
+            });
+        });
+        return done;
+    }
+
+    private boolean isCached(int chunkX, int chunkZ) {
+        MappedByteBuffer region = getRegion(chunkX, chunkZ, false);
+        return region != null && region.get(PRESENCE_OFFSET + chunkSlot(chunkX, chunkZ)) != 0;
+    }
+
+    @Nullable
+    private MappedByteBuffer getRegion(int chunkX, int chunkZ, boolean create) {
+        int regionX = Math.floorDiv(chunkX, REGION_SIZE);
+        int regionZ = Math.floorDiv(chunkZ, REGION_SIZE);
+        long key = chunkKey(regionX, regionZ);
+        MappedRegion mapped = regions.get(key);
+        if (mapped != null) {
+            mapped.lastUsed = System.nanoTime();
+            return mapped.buffer;
+        }
+        if (!create && missingRegions.contains(key)) {
+            return null;
+        }
+        synchronized (this) {
+            mapped = regions.get(key);
+            if (mapped != null) {
+                mapped.lastUsed = System.nanoTime();
+                return mapped.buffer;
+            }
+            Path file = directory.resolve("r." + regionX + "." + regionZ + ".bin");
+            if (!create && !Files.exists(file)) {
+                markMissing(key);
+                return null;
+            }
+            try {
+                Files.createDirectories(directory);
+                MappedByteBuffer region = mapRegion(file, create);
+                if (region == null) {
+                    // Another format, and nothing to write yet - rebuilt on the first store
+                    markMissing(key);
+                    return null;
+                }
+                if (regions.size() >= MAX_MAPPED_REGIONS) {
+                    releaseLeastRecentlyUsed();
+                }
+                regions.put(key, new MappedRegion(region));
+                missingRegions.remove(key);
+                return region;
+            } catch (IOException e) {
+                LOGGER.atWarning().log("Failed to map tile cache region %s: %s", file, e.getMessage());
+                markMissing(key);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Remembers that a region has no usable file. The set is reset once it grows past
+     * {@link #MAX_MISSING_REGIONS} - forgotten regions just cost another file check.
+     */
+    private void markMissing(long key) {
+        if (missingRegions.size() >= MAX_MISSING_REGIONS) {
+            missingRegions.clear();
+        }
+        missingRegions.add(key);
+    }
+
+    /**
+     * Writes back and drops the region used longest ago. Callers still holding its buffer keep
+     * writing through to the file; the mapping itself is freed once they let go of it.
+     */
+    private void releaseLeastRecentlyUsed() {
+        Long oldestKey = null;
+        MappedRegion oldest = null;
+        for (Map.Entry<Long, MappedRegion> entry : regions.entrySet()) {
+            if (oldest == null || entry.getValue().lastUsed < oldest.lastUsed) {
+                oldestKey = entry.getKey();
+                oldest = entry.getValue();
+            }
+        }
+        if (oldest == null) {
+            return;
+        }
+        regions.remove(oldestKey);
+        force(oldest.buffer);
+    }
+
+    private void force(@Nonnull MappedByteBuffer region) {
+        try {
+            synchronized (region) {
+                region.force();
+            }
+        } catch (Exception e) {
+            LOGGER.atWarning().log("Failed to flush tile cache for %s: %s", worldName, e.getMessage());
+        }
+    }
+
+    /**
+     * Maps a region file after checking its header. A file with another magic or version is emptied
+     * and started over when writing, and treated as missing when only reading.
+     * @return the mapping, or null if the file has another format and create is false
+     */
+    @Nullable
+    private MappedByteBuffer mapRegion(@Nonnull Path file, boolean create) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() > 0) {
+                ByteBuffer header = ByteBuffer.allocate(PRESENCE_OFFSET);
+                channel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION) {
+                    LOGGER.atInfo().log("Discarding tile cache region %s from another format", file);
+                    if (!create) {
+                        return null;
+                    }
+                    channel.truncate(0);
+                }
+            }
+            boolean fresh = channel.size() == 0;
+            // The mapping stays valid after the channel is closed; unwritten chunks stay sparse on disk
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, 0, REGION_BYTES);
+            if (fresh) {
+                region.putInt(0, MAGIC);
+                region.putInt(4, FORMAT_VERSION);
+            }
+            return region;
+        }
+    }
+
+    private void flush() {
+        for (MappedRegion mapped : regions.values()) {
+            force(mapped.buffer);
+        }
+        regions.clear();
+    }
+
+    private static int chunkSlot(int chunkX, int chunkZ) {
+        return Math.floorMod(chunkZ, REGION_SIZE) * REGION_SIZE + Math.floorMod(chunkX, REGION_SIZE);
+    }
+
+    private static long chunkKey(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    @Nonnull
+    private static String sanitize(@Nonnull String worldName) {
+        return worldName.replaceAll("[^A-Za-z0-9._-]", "_");
+    }
+}
@@ -4,7 +4,9 @@ import com.hypixel.hytale.codec.ExtraInfo;
 import com.hypixel.hytale.codec.util.RawJsonReader;
 import com.hypixel.hytale.logger.HytaleLogger;
 import com.hypixel.hytale.server.core.util.BsonUtil;
+import com.nextlvlhash.waypoint.GlobalWaypointLayer;
 import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointBulkAction;
 import com.nextlvlhash.waypoint.WaypointConfig;
 
 import javax.annotation.Nonnull;
@@ -12,6 +14,8 @@ import javax.annotation.Nullable;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -24,14 +28,20 @@ public class WaypointStorage {
 
     private final Path waypointsDirectory;
     private final Path globalWaypointsDirectory;
+    private final Path serverConfigFile;
     private final ConcurrentHashMap<UUID, WaypointConfig> configCache;
     private WaypointConfig globalWaypoints;
+    private volatile GlobalWaypointLayer globalLayer = GlobalWaypointLayer.EMPTY; // Shared snapshot for rendering
+    private volatile Runnable globalChangeListener = null;
+    private HudServerConfig serverConfig;
 
     public WaypointStorage(@Nonnull Path dataDirectory) {
         this.waypointsDirectory = dataDirectory.resolve("waypoints");
         this.globalWaypointsDirectory = dataDirectory.resolve("global-waypoints");
+        this.serverConfigFile = dataDirectory.resolve("config.json");
         this.configCache = new ConcurrentHashMap<>();
         this.globalWaypoints = null;
+        this.serverConfig = new HudServerConfig();
     }
 
     /**
@@ -45,6 +55,9 @@ public class WaypointStorage {
 
             // Load global waypoints
             loadGlobalWaypoints();
+
+            // Load server-wide HUD settings
+            loadServerConfig();
         } catch (IOException e) {
             LOGGER.atSevere().log("Failed to create waypoints directory: %s", e.getMessage());
         }
@@ -90,6 +103,7 @@ public class WaypointStorage {
     @Nonnull
     public CompletableFuture<Void> saveWaypointConfig(@Nonnull UUID playerUuid, @Nonnull WaypointConfig config) {
         configCache.put(playerUuid, config);
+        config.bumpVersion();
         Path configFile = waypointsDirectory.resolve(playerUuid.toString() + ".json");
 
         return BsonUtil.writeDocument(configFile, WaypointConfig.CODEC.encode(config, new ExtraInfo()))
@@ -128,6 +142,23 @@ public class WaypointStorage {
         return CompletableFuture.completedFuture(false);
     }
 
+    /**
+     * Applies one action to several of a player's waypoints as a single change:
+     * one config mutation, one version bump and one disk write.
+     * @return the number of waypoints changed
+     */
+    @SuppressWarnings("null")
+    @Nonnull
+    public CompletableFuture<Integer> applyBulk(@Nonnull UUID playerUuid, @Nonnull Collection<String> waypointIds,
+                                               @Nonnull WaypointBulkAction action) {
+        WaypointConfig config = getWaypointConfig(playerUuid);
+        int changed = config.applyBulk(new HashSet<>(waypointIds), action);
+        if (changed > 0) {
+            return saveWaypointConfig(playerUuid, config).thenApply(v -> changed);
+        }
+        return CompletableFuture.completedFuture(0);
+    }
+
     /**
      * Updates a waypoint for a player.
      */
@@ -156,6 +187,42 @@ public class WaypointStorage {
         configCache.remove(playerUuid);
     }
 
+    /**
+     * Gets the server-wide HUD settings.
+     */
+    @SuppressWarnings("null")
+    @Nonnull
+    public HudServerConfig getServerConfig() {
+        return serverConfig;
+    }
+
+    /**
+     * Loads server-wide HUD settings, writing the defaults if the file doesn't exist yet.
+     */
+    @SuppressWarnings("null")
+    private void loadServerConfig() {
+        if (Files.exists(serverConfigFile)) {
+            try {
+                HudServerConfig loaded = RawJsonReader.readSync(serverConfigFile, HudServerConfig.CODEC, LOGGER);
+                if (loaded != null) {
+                    serverConfig = loaded;
+                } else {
+                    LOGGER.atWarning().log("Failed to read HUD server config, using defaults");
+                }
+            } catch (Exception e) {
+                LOGGER.atSevere().log("Error loading HUD server config: %s", e.getMessage());
+            }
+            return;
+        }
+
+        BsonUtil.writeDocument(serverConfigFile, HudServerConfig.CODEC.encode(serverConfig, new ExtraInfo()))
+            .whenComplete((result, throwable) -> {
+                if (throwable != null) {
+                    LOGGER.atSevere().log("Failed to write HUD server config: %s", throwable.getMessage());
+                }
+            });
+    }
+
     /**
      * Loads global waypoints from disk.
      */
@@ -177,6 +244,7 @@ public class WaypointStorage {
         } else {
             globalWaypoints = new WaypointConfig("global");
         }
+        globalLayer = GlobalWaypointLayer.of(globalWaypoints);
     }
 
     /**
@@ -191,6 +259,21 @@ public class WaypointStorage {
         return globalWaypoints;
     }
 
+    /**
+     * Gets the current snapshot of visible global waypoints, shared by all players.
+     */
+    @Nonnull
+    public GlobalWaypointLayer getGlobalLayer() {
+        return globalLayer;
+    }
+
+    /**
+     * Sets the callback run after each global waypoint write (once the new layer is published).
+     */
+    public void setGlobalChangeListener(@Nonnull Runnable listener) {
+        this.globalChangeListener = listener;
+    }
+
     /**
      * Adds a global waypoint.
      */
@@ -227,6 +310,12 @@ public class WaypointStorage {
     @Nonnull
     private CompletableFuture<Void> saveGlobalWaypoints() {
         Path globalFile = globalWaypointsDirectory.resolve("global.json");
+        globalWaypoints.bumpVersion();
+        globalLayer = GlobalWaypointLayer.of(globalWaypoints);
+        Runnable listener = globalChangeListener;
+        if (listener != null) {
+            listener.run();
+        }
 
         return BsonUtil.writeDocument(globalFile, WaypointConfig.CODEC.encode(globalWaypoints, new ExtraInfo()))
             .whenComplete((result, throwable) -> {
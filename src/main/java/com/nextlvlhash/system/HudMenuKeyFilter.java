@@ -9,14 +9,14 @@ import com.hypixel.hytale.protocol.packets.interaction.SyncInteractionChains;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.io.adapter.PlayerPacketFilter;
 import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.hypixel.hytale.server.core.universe.world.World;
 import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.hud.HudSession;
 import com.nextlvlhash.page.HudMenuPage;
 import com.nextlvlhash.storage.WaypointStorage;
 
 import javax.annotation.Nonnull;
-import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Packet filter that captures the O key (GameModeSwap interaction) to open the HUD menu.
@@ -25,7 +25,6 @@ import java.util.concurrent.ConcurrentHashMap;
 public class HudMenuKeyFilter implements PlayerPacketFilter {
 
     private final WaypointStorage waypointStorage;
-    private final Map<UUID, Long> lastTriggerMs = new ConcurrentHashMap<>();
     private static final long COOLDOWN_MS = 500L; // Prevent double triggers
 
     public HudMenuKeyFilter(@Nonnull WaypointStorage waypointStorage) {
@@ -63,19 +62,38 @@ public class HudMenuKeyFilter implements PlayerPacketFilter {
 
     private boolean handleOKeyPress(@Nonnull PlayerRef playerRef) {
         UUID uuid = playerRef.getUuid();
-        
-        // Cooldown check to prevent double triggers
+
+        HudSession session = HudSession.get(uuid);
+        if (session == null) {
+            // No HUD session yet (or it failed to start) - open the menu on the player's world directly
+            Ref<EntityStore> storeRef = playerRef.getReference();
+            if (storeRef == null || !storeRef.isValid()) {
+                return false;
+            }
+            World world = storeRef.getStore().getExternalData().getWorld();
+            world.execute(() -> openMenu(playerRef));
+            return true;
+        }
+
+        // Cooldown check to prevent double triggers (tracked in the player's HUD session)
         long now = System.currentTimeMillis();
-        Long lastTrigger = lastTriggerMs.get(uuid);
-        if (lastTrigger != null && (now - lastTrigger) < COOLDOWN_MS) {
+        if ((now - session.getLastMenuTriggerMs()) < COOLDOWN_MS) {
             return true; // Block the packet but don't open menu again
         }
-        lastTriggerMs.put(uuid, now);
+        session.setLastMenuTriggerMs(now);
+
+        // This runs on the network thread - open the page on the world thread
+        HudSession.post(uuid, () -> openMenu(playerRef));
 
+        // Return true to consume the packet (prevent gamemode swap)
+        return true;
+    }
+
+    private void openMenu(@Nonnull PlayerRef playerRef) {
         try {
             Ref<EntityStore> storeRef = playerRef.getReference();
             if (storeRef == null || !storeRef.isValid()) {
-                return false;
+                return;
             }
             Store<EntityStore> store = storeRef.getStore();
 
@@ -83,7 +101,7 @@ public class HudMenuKeyFilter implements PlayerPacketFilter {
             Player player = store.getComponent(storeRef, Player.getComponentType());
             if (player == null) {
                 System.out.println("[HudMod] O key pressed but player component not found");
-                return false;
+                return;
             }
 
             // Open HUD menu page
@@ -95,20 +113,9 @@ public class HudMenuKeyFilter implements PlayerPacketFilter {
             System.out.println("[HudMod] Opening page via PageManager...");
             player.getPageManager().openCustomPage(storeRef, store, hudMenuPage);
             System.out.println("[HudMod] openCustomPage() call completed");
-
-            // Return true to consume the packet (prevent gamemode swap)
-            return true;
         } catch (Exception e) {
             System.out.println("[HudMod] Error handling O key press: " + e.getMessage());
             e.printStackTrace();
-            return false;
         }
     }
-
-    /**
-     * Clean up player data on disconnect
-     */
-    public void onPlayerDisconnect(@Nonnull UUID uuid) {
-        lastTriggerMs.remove(uuid);
-    }
 }
@@ -0,0 +1,101 @@
+package com.nextlvlhash.system;
+
+import com.hypixel.hytale.protocol.Direction;
+import com.hypixel.hytale.protocol.Packet;
+import com.hypixel.hytale.protocol.Position;
+import com.hypixel.hytale.protocol.packets.player.ClientMovement;
+import com.hypixel.hytale.server.core.io.adapter.PlayerPacketFilter;
+import com.hypixel.hytale.server.core.universe.PlayerRef;
+import com.nextlvlhash.hud.ClockHud;
+import com.nextlvlhash.hud.HudInvalidationBus;
+import com.nextlvlhash.hud.HudSession;
+import com.nextlvlhash.hud.MinimapHud;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Packet filter that watches client movement packets and renders the HUD as soon as the player
+ * moves to another block or turns past the minimap yaw threshold.
+ * Standing still sends packets that change nothing, so they cost one comparison and no render.
+ * Never consumes packets.
+ */
+public class HudMovementFilter implements PlayerPacketFilter {
+
+    private final Map<UUID, LastMovement> lastMovement = new ConcurrentHashMap<>();
+
+    /**
+     * Last block and yaw that triggered a render. Packets for one player arrive in order
+     * on a single connection thread, so fields are only written by that thread.
+     */
+    private static final class LastMovement {
+        private int blockX = Integer.MIN_VALUE;
+        private int blockY = Integer.MIN_VALUE;
+        private int blockZ = Integer.MIN_VALUE;
+        private float yawDegrees = Float.NaN;
+    }
+
+    @Override
+    public boolean test(@SuppressWarnings("null") @Nonnull PlayerRef playerRef, @SuppressWarnings("null") @Nonnull Packet packet) {
+        // Only process ClientMovement packets
+        if (!(packet instanceof ClientMovement)) {
+            return false;
+        }
+
+        ClientMovement movement = (ClientMovement) packet;
+        Position position = movement.absolutePosition;
+        Direction look = movement.lookOrientation;
+        if (position == null && look == null) {
+            return false;
+        }
+
+        UUID uuid = playerRef.getUuid();
+        LastMovement last = lastMovement.computeIfAbsent(uuid, k -> new LastMovement());
+        boolean moved = false;
+
+        if (position != null) {
+            int blockX = (int) Math.floor(position.x);
+            int blockY = (int) Math.floor(position.y);
+            int blockZ = (int) Math.floor(position.z);
+            if (blockX != last.blockX || blockY != last.blockY || blockZ != last.blockZ) {
+                last.blockX = blockX;
+                last.blockY = blockY;
+                last.blockZ = blockZ;
+                moved = true;
+            }
+        }
+
+        if (look != null) {
+            // Same normalization as MinimapHud: radians to degrees in [0, 360)
+            float yawDegrees = ((float) Math.toDegrees(look.yaw) + 360) % 360;
+            if (Float.isNaN(last.yawDegrees)
+                    || Math.abs(yawDegrees - last.yawDegrees) > MinimapHud.YAW_THRESHOLD_DEGREES) {
+                last.yawDegrees = yawDegrees;
+                moved = true;
+            }
+        }
+
+        if (moved) {
+            HudSession session = HudSession.get(uuid);
+            ClockHud clockHud = session != null ? session.getHud() : null;
+            if (clockHud != null) {
+                clockHud.getInvalidationBus().mark(HudInvalidationBus.Source.MOVEMENT);
+                // Skipped while a page is open or throttled by the watchdog;
+                // the mark is applied with the next render
+                session.requestMovementRender();
+            }
+        }
+
+        // Never consume movement packets
+        return false;
+    }
+
+    /**
+     * Clean up player data on disconnect
+     */
+    public void onPlayerDisconnect(@Nonnull UUID uuid) {
+        lastMovement.remove(uuid);
+    }
+}
@@ -7,134 +7,417 @@ import com.hypixel.hytale.protocol.packets.worldmap.MapMarker;
 import com.hypixel.hytale.server.core.entity.entities.Player;
 import com.hypixel.hytale.server.core.entity.entities.player.data.PlayerConfigData;
 import com.hypixel.hytale.server.core.entity.entities.player.data.PlayerWorldData;
-import com.hypixel.hytale.server.core.universe.PlayerRef;
 import com.hypixel.hytale.server.core.universe.world.World;
 import com.nextlvlhash.storage.WaypointStorage;
+import com.nextlvlhash.waypoint.GlobalWaypointLayer;
 import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointConfig;
+import com.nextlvlhash.waypoint.WaypointIcon;
+import com.nextlvlhash.waypoint.WaypointSpatialIndex;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * System to integrate HudMod waypoints with Hytale's native map system.
  * Waypoints will appear on BOTH the custom minimap HUD AND the native M-key world map.
+ * Markers written for each player and world are cached by waypoint id, so a sync only creates
+ * markers for waypoints that changed and skips the write entirely when nothing did.
+ * Edits post a marker sync to the player's HUD session, which reconciles and writes them in one batch
+ * with the next render.
+ * Past {@link #MAX_MAP_MARKERS} markers, nearby waypoints are merged into "N waypoints" markers
+ * using a {@link MarkerClusterIndex}, so the payload stays bounded however many waypoints there are.
+ * With a marker stream radius configured, only waypoints near the player's region are sent; the set
+ * follows the player region by region (see {@link #updateStreamAnchor}).
  */
 public class MapIntegrationSystem {
 
+    private static final int MAX_MAP_MARKERS = 64; // Markers per world before clustering kicks in
+    private static final String CLUSTER_ICON = WaypointIcon.WHITE.getIconPath();
+    private static final int STREAM_HYSTERESIS_BLOCKS = 64; // How far past its region edge the player must go to re-stream
+
+    private static final ConcurrentHashMap<UUID, ConcurrentHashMap<String, WorldMarkers>> MARKERS = new ConcurrentHashMap<>();
+    // Markers of global waypoints, created once and shared by every player's cache
+    private static final ConcurrentHashMap<String, CachedMarker> GLOBAL_MARKERS = new ConcurrentHashMap<>();
+    private static volatile GlobalWaypointLayer globalMarkersLayer = null;
+
     /**
-     * Syncs all HudMod waypoints to Hytale's native world map.
-     * Call this when waypoints change or when the player joins.
+     * Markers HudMod shows for one player in one world, in display order. Only touched on that world's thread.
      */
-    @SuppressWarnings("removal")
-    public static void syncWaypointsToMap(@Nonnull Player player, @Nonnull WaypointStorage storage) {
-        World world = player.getWorld();
-        if (world == null) return;
+    private static final class WorldMarkers {
+        private final LinkedHashMap<String, CachedMarker> markers = new LinkedHashMap<>();
+        private final MarkerClusterIndex clusterIndex = new MarkerClusterIndex();
+        private final HashMap<String, ClusterMarker> clusters = new HashMap<>(); // Cluster markers of the last write
+        private WaypointConfig syncedConfig = null; // Config and version the markers were reconciled with
+        private long syncedVersion = -1L;
+        private GlobalWaypointLayer syncedGlobals = null; // Global layer of the last reconcile
+        private int syncedRadius = 0;     // Stream radius of the last reconcile (0 = all waypoints)
+        private boolean hasAnchor = false; // Player region known
+        private int anchorRegionX = 0;    // Region the streamed markers are centered on
+        private int anchorRegionZ = 0;
+        private long syncedAnchor = Long.MIN_VALUE;
+        private boolean dirty = true; // Differs from what PlayerWorldData holds
+        private int added = 0;
+        private int updated = 0;
+        private int removed = 0;
+    }
 
-        PlayerRef playerRef = player.getPlayerRef();
-        UUID playerUuid = playerRef.getUuid();
+    /**
+     * A marker plus the waypoint fields it was created from.
+     */
+    private static final class CachedMarker {
+        private final MapMarker marker;
+        private final String name;
+        private final String iconPath;
+        private final int x;
+        private final int y;
+        private final int z;
 
-        // Get all visible waypoints for this player
-        List<Waypoint> waypoints = storage.getWaypointConfig(playerUuid).getVisibleWaypoints();
+        private CachedMarker(@Nonnull Waypoint waypoint) {
+            this.marker = createMapMarker(waypoint);
+            this.name = waypoint.getName();
+            this.iconPath = waypoint.getIconPath();
+            this.x = waypoint.getX();
+            this.y = waypoint.getY();
+            this.z = waypoint.getZ();
+        }
 
-        // Convert HudMod waypoints to native map markers
-        List<MapMarker> markers = new ArrayList<>();
-        for (Waypoint wp : waypoints) {
-            @SuppressWarnings("null")
-            MapMarker marker = createMapMarker(wp);
-            markers.add(marker);
+        private boolean matches(@Nonnull Waypoint waypoint) {
+            return x == waypoint.getX() && y == waypoint.getY() && z == waypoint.getZ()
+                    && name.equals(waypoint.getName()) && iconPath.equals(waypoint.getIconPath());
         }
+    }
 
-        // Store markers in PlayerWorldData - this makes them appear on the map!
-        PlayerConfigData configData = player.getPlayerConfigData();
-        PlayerWorldData worldData = configData.getPerWorldData(world.getName());
-        worldData.setWorldMapMarkers(markers.toArray(new MapMarker[0]));
+    /**
+     * A cluster marker and the member count and centroid it was created for.
+     */
+    private static final class ClusterMarker {
+        private final MapMarker marker;
+        private final int count;
+        private final int x;
+        private final int y;
+        private final int z;
+
+        private ClusterMarker(@Nonnull String id, int count, int x, int y, int z) {
+            this.marker = createClusterMarker(id, count, x, y, z);
+            this.count = count;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+        }
 
-        System.out.println("[HudMod MapIntegration] Synced " + markers.size() + " waypoints to native map");
+        private boolean matches(int count, int x, int y, int z) {
+            return this.count == count && this.x == x && this.y == y && this.z == z;
+        }
     }
 
     /**
-     * Adds a single waypoint to the native map.
+     * Syncs all HudMod waypoints to Hytale's native world map.
+     * Call this when waypoints change or when the player joins. Unchanged waypoints cost a comparison;
+     * if the waypoint config wasn't written since the last sync in this world, nothing is compared at all.
      */
-    public static void addWaypointToMap(@Nonnull Player player, @Nonnull Waypoint waypoint) {
+    public static void syncWaypointsToMap(@Nonnull Player player, @Nonnull WaypointStorage storage) {
         World world = player.getWorld();
         if (world == null) return;
 
-        PlayerConfigData configData = player.getPlayerConfigData();
-        PlayerWorldData worldData = configData.getPerWorldData(world.getName());
-        
-        // Get existing markers
-        MapMarker[] existing = worldData.getWorldMapMarkers();
-        List<MapMarker> markerList = existing != null ? new ArrayList<>(Arrays.asList(existing)) : new ArrayList<>();
-        
-        // Add new marker
-        markerList.add(createMapMarker(waypoint));
-        
-        // Update
-        worldData.setWorldMapMarkers(markerList.toArray(new MapMarker[0]));
-        
-        System.out.println("[HudMod MapIntegration] Added marker to map: " + waypoint.getName());
+        UUID playerUuid = player.getPlayerRef().getUuid();
+        WorldMarkers cache = markersFor(playerUuid, world.getName());
+        WaypointConfig config = storage.getWaypointConfig(playerUuid);
+        long version = config.getVersion();
+        int radius = storage.getServerConfig().getMarkerStreamRadius();
+        if (radius > 0 && !cache.hasAnchor) {
+            return; // Streaming starts once the HUD reported the player's region
+        }
+        long anchor = radius > 0 ? ((long) cache.anchorRegionX << 32) | (cache.anchorRegionZ & 0xFFFFFFFFL) : 0L;
+        GlobalWaypointLayer globals = storage.getGlobalLayer();
+        if (globals != globalMarkersLayer) {
+            pruneGlobalMarkers(globals);
+        }
+        if (config != cache.syncedConfig || version != cache.syncedVersion || globals != cache.syncedGlobals
+                || radius != cache.syncedRadius || anchor != cache.syncedAnchor) {
+            cache.syncedRadius = radius;
+            // Get the visible waypoints for this player (near the anchor region when streaming)
+            // and diff them against the cached markers
+            List<Waypoint> waypoints;
+            if (radius > 0) {
+                waypoints = new ArrayList<>();
+                int[] box = streamBox(cache);
+                for (Waypoint wp : config.getSpatialIndex().query(box[0], box[1], box[2], box[3])) {
+                    if (wp.isVisible()) {
+                        waypoints.add(wp);
+                    }
+                }
+                // Global layer: read through the shared index, no per-player copies
+                waypoints.addAll(globals.query(box[0], box[1], box[2], box[3]));
+            } else {
+                waypoints = config.getVisibleWaypoints();
+                waypoints.addAll(globals.getWaypoints());
+            }
+            reconcile(cache, waypoints);
+            cache.syncedConfig = config;
+            cache.syncedVersion = version;
+            cache.syncedGlobals = globals;
+            cache.syncedAnchor = anchor;
+        }
+        flush(player, world, cache);
     }
 
     /**
-     * Removes a waypoint marker from the native map.
+     * Tracks the player's region for marker streaming. The anchor only moves once the player is
+     * {@link #STREAM_HYSTERESIS_BLOCKS} past the edge of the anchored region, so walking along a
+     * region border doesn't swap markers back and forth. Runs on the world thread.
+     * @return true if the anchor moved and the markers have to be re-synced
      */
-    @SuppressWarnings("null")
-    public static void removeWaypointFromMap(@Nonnull Player player, @Nonnull String waypointId) {
-        World world = player.getWorld();
-        if (world == null) return;
+    public static boolean updateStreamAnchor(@Nonnull UUID playerUuid, @Nonnull String worldName, int blockX, int blockZ) {
+        WorldMarkers cache = markersFor(playerUuid, worldName);
+        int regionX = WaypointSpatialIndex.regionOf(blockX);
+        int regionZ = WaypointSpatialIndex.regionOf(blockZ);
+        if (cache.hasAnchor) {
+            if (regionX == cache.anchorRegionX && regionZ == cache.anchorRegionZ) {
+                return false;
+            }
+            int minX = cache.anchorRegionX * WaypointSpatialIndex.REGION_BLOCKS;
+            int minZ = cache.anchorRegionZ * WaypointSpatialIndex.REGION_BLOCKS;
+            int maxX = minX + WaypointSpatialIndex.REGION_BLOCKS - 1;
+            int maxZ = minZ + WaypointSpatialIndex.REGION_BLOCKS - 1;
+            if (blockX >= minX - STREAM_HYSTERESIS_BLOCKS && blockX <= maxX + STREAM_HYSTERESIS_BLOCKS
+                    && blockZ >= minZ - STREAM_HYSTERESIS_BLOCKS && blockZ <= maxZ + STREAM_HYSTERESIS_BLOCKS) {
+                return false;
+            }
+        }
+        cache.hasAnchor = true;
+        cache.anchorRegionX = regionX;
+        cache.anchorRegionZ = regionZ;
+        return true;
+    }
 
-        PlayerConfigData configData = player.getPlayerConfigData();
-        PlayerWorldData worldData = configData.getPerWorldData(world.getName());
-        
-        MapMarker[] existing = worldData.getWorldMapMarkers();
-        if (existing == null) return;
-        
-        // Filter out the marker to remove
-        List<MapMarker> markerList = new ArrayList<>();
-        for (MapMarker marker : existing) {
-            if (!marker.id.equals(waypointId)) {
-                markerList.add(marker);
+    /**
+     * Streamed area: the anchor region grown by the stream radius, as {minX, minZ, maxX, maxZ}.
+     */
+    @Nonnull
+    private static int[] streamBox(@Nonnull WorldMarkers cache) {
+        int minX = cache.anchorRegionX * WaypointSpatialIndex.REGION_BLOCKS - cache.syncedRadius;
+        int minZ = cache.anchorRegionZ * WaypointSpatialIndex.REGION_BLOCKS - cache.syncedRadius;
+        int maxX = (cache.anchorRegionX + 1) * WaypointSpatialIndex.REGION_BLOCKS - 1 + cache.syncedRadius;
+        int maxZ = (cache.anchorRegionZ + 1) * WaypointSpatialIndex.REGION_BLOCKS - 1 + cache.syncedRadius;
+        return new int[]{minX, minZ, maxX, maxZ};
+    }
+
+    /**
+     * Drops a player's marker caches (called on disconnect).
+     */
+    public static void onPlayerDisconnect(@Nonnull UUID playerUuid) {
+        MARKERS.remove(playerUuid);
+    }
+
+    @Nonnull
+    private static WorldMarkers markersFor(@Nonnull UUID playerUuid, @Nonnull String worldName) {
+        return MARKERS.computeIfAbsent(playerUuid, k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(worldName, k -> new WorldMarkers());
+    }
+
+    /**
+     * Creates markers for new or changed waypoints and drops markers whose waypoint is gone or hidden.
+     */
+    private static void reconcile(@Nonnull WorldMarkers cache, @Nonnull List<Waypoint> waypoints) {
+        Set<String> visible = new HashSet<>();
+        for (Waypoint wp : waypoints) {
+            visible.add(wp.getId());
+            put(cache, wp);
+        }
+        Iterator<Map.Entry<String, CachedMarker>> entries = cache.markers.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<String, CachedMarker> entry = entries.next();
+            if (!visible.contains(entry.getKey())) {
+                CachedMarker cached = entry.getValue();
+                cache.clusterIndex.remove(entry.getKey(), cached.x, cached.y, cached.z);
+                entries.remove();
+                cache.removed++;
+                cache.dirty = true;
             }
         }
-        
-        worldData.setWorldMapMarkers(markerList.toArray(new MapMarker[0]));
-        
-        System.out.println("[HudMod MapIntegration] Removed marker from map: " + waypointId);
     }
 
     /**
-     * Updates a waypoint marker on the native map.
+     * Caches a marker for the waypoint unless an identical one is cached.
      */
-    @SuppressWarnings("null")
-    public static void updateWaypointOnMap(@Nonnull Player player, @Nonnull Waypoint waypoint) {
-        World world = player.getWorld();
-        if (world == null) return;
+    private static void put(@Nonnull WorldMarkers cache, @Nonnull Waypoint waypoint) {
+        CachedMarker cached = cache.markers.get(waypoint.getId());
+        if (cached != null && cached.matches(waypoint)) {
+            return;
+        }
+        cache.markers.put(waypoint.getId(), markerFor(waypoint));
+        if (cached != null) {
+            cache.clusterIndex.remove(waypoint.getId(), cached.x, cached.y, cached.z);
+        }
+        cache.clusterIndex.add(waypoint.getId(), waypoint.getX(), waypoint.getY(), waypoint.getZ());
+        if (cached == null) {
+            cache.added++;
+        } else {
+            cache.updated++;
+        }
+        cache.dirty = true;
+    }
+
+    /**
+     * Marker for a waypoint; global waypoints share one marker across all players.
+     */
+    @Nonnull
+    private static CachedMarker markerFor(@Nonnull Waypoint waypoint) {
+        if (!waypoint.isGlobal()) {
+            return new CachedMarker(waypoint);
+        }
+        CachedMarker shared = GLOBAL_MARKERS.get(waypoint.getId());
+        if (shared == null || !shared.matches(waypoint)) {
+            shared = new CachedMarker(waypoint);
+            GLOBAL_MARKERS.put(waypoint.getId(), shared);
+        }
+        return shared;
+    }
+
+    /**
+     * Drops shared markers of global waypoints that are no longer in the layer.
+     */
+    private static synchronized void pruneGlobalMarkers(@Nonnull GlobalWaypointLayer layer) {
+        if (layer == globalMarkersLayer) {
+            return;
+        }
+        Set<String> ids = new HashSet<>();
+        for (Waypoint wp : layer.getWaypoints()) {
+            ids.add(wp.getId());
+        }
+        GLOBAL_MARKERS.keySet().retainAll(ids);
+        globalMarkersLayer = layer;
+    }
 
+    /**
+     * Writes the cached markers to PlayerWorldData if they changed since the last write.
+     */
+    @SuppressWarnings("removal")
+    private static void flush(@Nonnull Player player, @Nonnull World world, @Nonnull WorldMarkers cache) {
+        if (!cache.dirty) {
+            return;
+        }
+        MapMarker[] markers;
+        if (cache.markers.size() <= MAX_MAP_MARKERS) {
+            markers = new MapMarker[cache.markers.size()];
+            int i = 0;
+            for (CachedMarker cached : cache.markers.values()) {
+                markers[i++] = cached.marker;
+            }
+            cache.clusters.clear();
+        } else {
+            markers = clusterMarkers(cache);
+        }
+
+        // Store markers in PlayerWorldData - this makes them appear on the map!
         PlayerConfigData configData = player.getPlayerConfigData();
         PlayerWorldData worldData = configData.getPerWorldData(world.getName());
-        
-        MapMarker[] existing = worldData.getWorldMapMarkers();
-        if (existing == null) return;
-        
-        // Find and update the marker
-        List<MapMarker> markerList = new ArrayList<>();
-        boolean updated = false;
-        for (MapMarker marker : existing) {
-            if (marker.id.equals(waypoint.getId())) {
-                markerList.add(createMapMarker(waypoint));
-                updated = true;
-            } else {
-                markerList.add(marker);
+        worldData.setWorldMapMarkers(markers);
+
+        System.out.println("[HudMod MapIntegration] Synced " + cache.markers.size() + " waypoints to native map as "
+                + markers.length + " markers (+"
+                + cache.added + " ~" + cache.updated + " -" + cache.removed + ")");
+        cache.dirty = false;
+        cache.added = 0;
+        cache.updated = 0;
+        cache.removed = 0;
+    }
+
+    /**
+     * One marker per occupied cell of the finest grid level that fits in {@link #MAX_MAP_MARKERS}:
+     * the waypoint itself for single-waypoint cells, an "N waypoints" marker at the centroid otherwise.
+     * If even the coarsest level has too many cells, the biggest cells are kept and every other cell
+     * is merged into the nearest kept one, so no waypoint is left off the map.
+     * The server doesn't know the map view's zoom, so one level is chosen per player and world from
+     * the marker count and shown at every zoom. Cluster markers whose members didn't change are reused.
+     */
+    @Nonnull
+    private static MapMarker[] clusterMarkers(@Nonnull WorldMarkers cache) {
+        int level = cache.clusterIndex.levelFor(MAX_MAP_MARKERS);
+        List<MarkerClusterIndex.Cell> cells = new ArrayList<>(cache.clusterIndex.cells(level));
+        List<MarkerClusterIndex.Cell> overflow = new ArrayList<>();
+        if (cells.size() > MAX_MAP_MARKERS) {
+            // Waypoints spread wider than the coarsest grid - keep the biggest clusters
+            cells.sort(Comparator.comparingInt(MarkerClusterIndex.Cell::size).reversed());
+            overflow.addAll(cells.subList(MAX_MAP_MARKERS, cells.size()));
+            cells = new ArrayList<>(cells.subList(0, MAX_MAP_MARKERS));
+        }
+
+        // Member count and coordinate sums per kept cell, with the overflow cells merged in
+        int[] counts = new int[cells.size()];
+        long[] sumX = new long[cells.size()];
+        long[] sumY = new long[cells.size()];
+        long[] sumZ = new long[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            MarkerClusterIndex.Cell cell = cells.get(i);
+            counts[i] = cell.size();
+            sumX[i] = (long) cell.getCenterX() * cell.size();
+            sumY[i] = (long) cell.getCenterY() * cell.size();
+            sumZ[i] = (long) cell.getCenterZ() * cell.size();
+        }
+        for (MarkerClusterIndex.Cell cell : overflow) {
+            int nearest = 0;
+            long nearestDistSq = Long.MAX_VALUE;
+            for (int i = 0; i < cells.size(); i++) {
+                long dx = cells.get(i).getCenterX() - cell.getCenterX();
+                long dz = cells.get(i).getCenterZ() - cell.getCenterZ();
+                long distSq = dx * dx + dz * dz;
+                if (distSq < nearestDistSq) {
+                    nearest = i;
+                    nearestDistSq = distSq;
+                }
             }
+            counts[nearest] += cell.size();
+            sumX[nearest] += (long) cell.getCenterX() * cell.size();
+            sumY[nearest] += (long) cell.getCenterY() * cell.size();
+            sumZ[nearest] += (long) cell.getCenterZ() * cell.size();
         }
-        
-        if (updated) {
-            worldData.setWorldMapMarkers(markerList.toArray(new MapMarker[0]));
-            System.out.println("[HudMod MapIntegration] Updated marker on map: " + waypoint.getName());
+        if (!overflow.isEmpty()) {
+            System.out.println("[HudMod MapIntegration] Merged " + overflow.size()
+                    + " outlying marker cells into their nearest clusters");
         }
+
+        HashMap<String, ClusterMarker> clusters = new HashMap<>();
+        MapMarker[] markers = new MapMarker[cells.size()];
+        for (int i = 0; i < cells.size(); i++) {
+            MarkerClusterIndex.Cell cell = cells.get(i);
+            if (counts[i] == 1) {
+                markers[i] = cache.markers.get(cell.firstId()).marker;
+                continue;
+            }
+            int x = (int) Math.floorDiv(sumX[i], counts[i]);
+            int y = (int) Math.floorDiv(sumY[i], counts[i]);
+            int z = (int) Math.floorDiv(sumZ[i], counts[i]);
+            // Named after the grid cell, so the id stays stable while members come and go
+            String id = "hudmod-cluster-" + level + "-" + Math.floorDiv(cell.getCenterX(), MarkerClusterIndex.cellBlocks(level))
+                    + "-" + Math.floorDiv(cell.getCenterZ(), MarkerClusterIndex.cellBlocks(level));
+            ClusterMarker cluster = cache.clusters.get(id);
+            if (cluster == null || !cluster.matches(counts[i], x, y, z)) {
+                cluster = new ClusterMarker(id, counts[i], x, y, z);
+            }
+            clusters.put(id, cluster);
+            markers[i] = cluster.marker;
+        }
+        cache.clusters.clear();
+        cache.clusters.putAll(clusters);
+        return markers;
+    }
+
+    private static MapMarker createClusterMarker(@Nonnull String id, int count, int x, int y, int z) {
+        Position position = new Position(x + 0.5, y + 0.5, z + 0.5);
+        Transform transform = new Transform(position, new Direction(0.0f, 0.0f, 0.0f));
+        return new MapMarker(id, count + " waypoints", CLUSTER_ICON, transform, null);
     }
 
     /**
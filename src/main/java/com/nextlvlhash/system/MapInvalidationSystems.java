@@ -0,0 +1,107 @@
+package com.nextlvlhash.system;
+
+import com.hypixel.hytale.component.Archetype;
+import com.hypixel.hytale.component.ArchetypeChunk;
+import com.hypixel.hytale.component.CommandBuffer;
+import com.hypixel.hytale.component.Store;
+import com.hypixel.hytale.component.query.Query;
+import com.hypixel.hytale.component.system.EntityEventSystem;
+import com.hypixel.hytale.math.util.ChunkUtil;
+import com.hypixel.hytale.math.vector.Vector3i;
+import com.hypixel.hytale.server.core.event.events.ecs.BreakBlockEvent;
+import com.hypixel.hytale.server.core.event.events.ecs.PlaceBlockEvent;
+import com.hypixel.hytale.server.core.universe.world.World;
+import com.hypixel.hytale.server.core.universe.world.chunk.WorldChunk;
+import com.hypixel.hytale.server.core.universe.world.storage.EntityStore;
+import com.nextlvlhash.storage.MinimapTileCache;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Systems that mark minimap tile cache chunks stale when blocks are broken or placed at the surface.
+ * Each ECS event type needs its own system class.
+ */
+public final class MapInvalidationSystems {
+
+    private MapInvalidationSystems() {
+    }
+
+    private static void markChanged(@Nonnull Store<EntityStore> store, @Nullable Vector3i block) {
+        if (block == null) {
+            return;
+        }
+        World world = store.getExternalData().getWorld();
+        MinimapTileCache tileCache = world != null ? MinimapTileCache.forWorld(world) : null;
+        if (tileCache != null && !isBelowSurface(world, block)) {
+            tileCache.markBlockChanged(world, block.getX(), block.getZ());
+        }
+    }
+
+    /**
+     * Whether a block is under the top block of its column, where changes don't show on the map
+     * (mining, caves). Unloaded chunks count as surface.
+     */
+    private static boolean isBelowSurface(@Nonnull World world, @Nonnull Vector3i block) {
+        WorldChunk chunk = world.getChunkIfLoaded(ChunkUtil.indexChunkFromBlock(block.getX(), block.getZ()));
+        if (chunk == null) {
+            return false;
+        }
+        int surface = chunk.getHeight(Math.floorMod(block.getX(), 32), Math.floorMod(block.getZ(), 32));
+        return block.getY() < surface;
+    }
+
+    /**
+     * Invalidates the tile of a broken block.
+     */
+    public static class OnBreakBlock extends EntityEventSystem<EntityStore, BreakBlockEvent> {
+
+        public OnBreakBlock() {
+            super(BreakBlockEvent.class);
+        }
+
+        @Override
+        public void handle(int index,
+                           @Nonnull ArchetypeChunk<EntityStore> archetypeChunk,
+                           @Nonnull Store<EntityStore> store,
+                           @Nonnull CommandBuffer<EntityStore> commandBuffer,
+                           @Nonnull BreakBlockEvent event) {
+            if (!event.isCancelled()) {
+                markChanged(store, event.getTargetBlock());
+            }
+        }
+
+        @Nullable
+        @Override
+        public Query<EntityStore> getQuery() {
+            return Archetype.empty(); // Catch events from all entities
+        }
+    }
+
+    /**
+     * Invalidates the tile of a placed block.
+     */
+    public static class OnPlaceBlock extends EntityEventSystem<EntityStore, PlaceBlockEvent> {
+
+        public OnPlaceBlock() {
+            super(PlaceBlockEvent.class);
+        }
+
+        @Override
+        public void handle(int index,
+                           @Nonnull ArchetypeChunk<EntityStore> archetypeChunk,
+                           @Nonnull Store<EntityStore> store,
+                           @Nonnull CommandBuffer<EntityStore> commandBuffer,
+                           @Nonnull PlaceBlockEvent event) {
+            if (!event.isCancelled()) {
+                markChanged(store, event.getTargetBlock());
+            }
+        }
+
+        @Nullable
+        @Override
+        public Query<EntityStore> getQuery() {
+            return Archetype.empty(); // Catch events from all entities
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.nextlvlhash.system;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Hierarchical grid over one player's waypoint markers in one world, used to cluster the native map.
+ * Level 0 has {@link #BASE_CELL_BLOCKS}-block cells and every level above doubles the cell size.
+ * Adding or removing a marker touches one cell per level, so the index follows waypoint edits
+ * without being rebuilt.
+ */
+public final class MarkerClusterIndex {
+    public static final int BASE_CELL_BLOCKS = 128;
+    public static final int LEVELS = 8; // 128 .. 16384 blocks
+
+    private final List<HashMap<Long, Cell>> levels = new ArrayList<>(LEVELS);
+
+    /**
+     * Markers in one grid cell and the sums for their centroid.
+     */
+    public static final class Cell {
+        private final Set<String> ids = new LinkedHashSet<>();
+        private long sumX = 0L;
+        private long sumY = 0L;
+        private long sumZ = 0L;
+
+        public int size() {
+            return ids.size();
+        }
+
+        /**
+         * Id of any marker in the cell (the only one for single-marker cells).
+         */
+        @Nonnull
+        public String firstId() {
+            return ids.iterator().next();
+        }
+
+        public int getCenterX() {
+            return (int) Math.floorDiv(sumX, ids.size());
+        }
+
+        public int getCenterY() {
+            return (int) Math.floorDiv(sumY, ids.size());
+        }
+
+        public int getCenterZ() {
+            return (int) Math.floorDiv(sumZ, ids.size());
+        }
+    }
+
+    public MarkerClusterIndex() {
+        for (int level = 0; level < LEVELS; level++) {
+            levels.add(new HashMap<>());
+        }
+    }
+
+    public void add(@Nonnull String id, int x, int y, int z) {
+        for (int level = 0; level < LEVELS; level++) {
+            Cell cell = levels.get(level).computeIfAbsent(cellKey(level, x, z), k -> new Cell());
+            if (cell.ids.add(id)) {
+                cell.sumX += x;
+                cell.sumY += y;
+                cell.sumZ += z;
+            }
+        }
+    }
+
+    /**
+     * Removes a marker; x, y and z must be the values it was added with.
+     */
+    public void remove(@Nonnull String id, int x, int y, int z) {
+        for (int level = 0; level < LEVELS; level++) {
+            HashMap<Long, Cell> cells = levels.get(level);
+            long key = cellKey(level, x, z);
+            Cell cell = cells.get(key);
+            if (cell == null || !cell.ids.remove(id)) {
+                continue;
+            }
+            cell.sumX -= x;
+            cell.sumY -= y;
+            cell.sumZ -= z;
+            if (cell.ids.isEmpty()) {
+                cells.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Finest level with at most maxCells occupied cells, or the coarsest level if none fits.
+     */
+    public int levelFor(int maxCells) {
+        for (int level = 0; level < LEVELS; level++) {
+            if (levels.get(level).size() <= maxCells) {
+                return level;
+            }
+        }
+        return LEVELS - 1;
+    }
+
+    @Nonnull
+    public Collection<Cell> cells(int level) {
+        return levels.get(level).values();
+    }
+
+    /**
+     * Cell side length in blocks at a level.
+     */
+    public static int cellBlocks(int level) {
+        return BASE_CELL_BLOCKS << level;
+    }
+
+    private static long cellKey(int level, int x, int z) {
+        int shift = Integer.numberOfTrailingZeros(BASE_CELL_BLOCKS) + level;
+        int cellX = x >> shift;
+        int cellZ = z >> shift;
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
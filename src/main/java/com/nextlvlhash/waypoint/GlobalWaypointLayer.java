@@ -0,0 +1,84 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable snapshot of the visible global waypoints with their region and name indexes, shared by every player.
+ * Storage publishes a new layer on each global write; HUDs and the native map compare layers by identity
+ * and read waypoints straight from it, so no per-player copies are made.
+ */
+public final class GlobalWaypointLayer {
+    public static final GlobalWaypointLayer EMPTY = new GlobalWaypointLayer(0L, Collections.emptyList());
+
+    private final long version;
+    private final List<Waypoint> waypoints;
+    private final WaypointSpatialIndex index;
+    private final WaypointNameIndex nameIndex; // Never modified after construction
+
+    private GlobalWaypointLayer(long version, @Nonnull List<Waypoint> waypoints) {
+        this.version = version;
+        this.waypoints = waypoints;
+        this.index = WaypointSpatialIndex.build(waypoints);
+        this.nameIndex = WaypointNameIndex.build(waypoints);
+    }
+
+    /**
+     * Snapshots the visible waypoints of the global config (detached copies, so later edits don't leak in).
+     */
+    @Nonnull
+    public static GlobalWaypointLayer of(@Nonnull WaypointConfig config) {
+        List<Waypoint> copies = new ArrayList<>();
+        for (Waypoint wp : config.getVisibleWaypoints()) {
+            Waypoint copy = wp.copy();
+            copy.setGlobal(true); // Hand-edited global.json entries may lack the flag
+            copies.add(copy);
+        }
+        return new GlobalWaypointLayer(config.getVersion(), Collections.unmodifiableList(copies));
+    }
+
+    /**
+     * Write version of the global config this layer was taken from.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isEmpty() {
+        return waypoints.isEmpty();
+    }
+
+    /**
+     * All visible global waypoints (unmodifiable; do not mutate the waypoints).
+     */
+    @Nonnull
+    public List<Waypoint> getWaypoints() {
+        return waypoints;
+    }
+
+    /**
+     * Name index of the global waypoints, for lookups and searches without scanning the layer.
+     */
+    @Nonnull
+    public WaypointNameIndex getNameIndex() {
+        return nameIndex;
+    }
+
+    /**
+     * Global waypoints within a block-aligned box (bounds inclusive).
+     */
+    @Nonnull
+    public List<Waypoint> query(int minX, int minZ, int maxX, int maxZ) {
+        return index.query(minX, minZ, maxX, maxZ);
+    }
+
+    /**
+     * Global waypoints within a square of the given radius around a block position.
+     */
+    @Nonnull
+    public List<Waypoint> queryAround(int blockX, int blockZ, int radius) {
+        return index.query(blockX - radius, blockZ - radius, blockX + radius, blockZ + radius);
+    }
+}
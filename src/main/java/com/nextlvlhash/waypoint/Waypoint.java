@@ -55,6 +55,29 @@ public class Waypoint {
         this.color = category.getDefaultColor();
     }
 
+    /**
+     * Creates a detached copy with the same id (for snapshots read off the world thread).
+     */
+    @Nonnull
+    public Waypoint copy() {
+        Waypoint copy = new Waypoint();
+        copy.id = this.id;
+        copy.name = this.name;
+        copy.description = this.description;
+        copy.x = this.x;
+        copy.y = this.y;
+        copy.z = this.z;
+        copy.color = this.color;
+        copy.category = this.category;
+        copy.icon = this.icon;
+        copy.visible = this.visible;
+        copy.isGlobal = this.isGlobal;
+        copy.ownerUuid = this.ownerUuid;
+        copy.ownerName = this.ownerName;
+        copy.createdTime = this.createdTime;
+        return copy;
+    }
+
     @Nonnull
     public String getId() {
         return id != null ? id : "";
@@ -0,0 +1,44 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Actions that can be applied to many waypoints at once (see {@link WaypointConfig#applyBulk}).
+ */
+public enum WaypointBulkAction {
+    HIDE("Hide", "hidden"),
+    SHOW("Show", "shown"),
+    REMOVE("Remove", "removed");
+
+    private final String displayName;
+    private final String pastTense;
+
+    WaypointBulkAction(String displayName, String pastTense) {
+        this.displayName = displayName;
+        this.pastTense = pastTense;
+    }
+
+    @Nonnull
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Word for result messages, e.g. "12 waypoints hidden".
+     */
+    @Nonnull
+    public String getPastTense() {
+        return pastTense;
+    }
+
+    @Nullable
+    public static WaypointBulkAction fromString(@Nullable String value) {
+        for (WaypointBulkAction action : values()) {
+            if (action.name().equalsIgnoreCase(value)) {
+                return action;
+            }
+        }
+        return null;
+    }
+}
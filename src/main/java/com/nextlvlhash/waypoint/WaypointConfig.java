@@ -5,12 +5,19 @@ import com.hypixel.hytale.codec.KeyedCodec;
 import com.hypixel.hytale.codec.builder.BuilderCodec;
 import com.hypixel.hytale.codec.codecs.array.ArrayCodec;
 import com.hypixel.hytale.codec.function.FunctionCodec;
+import com.nextlvlhash.hud.ColorDepth;
 import com.nextlvlhash.hud.HudPosition;
+import com.nextlvlhash.hud.MinimapLayout;
+import com.nextlvlhash.hud.MinimapTheme;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 /**
@@ -32,6 +39,15 @@ public class WaypointConfig {
     private boolean autoDeathWaypoint;
     private String hudPosition; // Stored as HudPosition enum name (e.g., "TOP_RIGHT")
     private int minimapZoom; // Zoom level for minimap (1-5)
+    private String minimapLayout; // Stored as MinimapLayout enum name (e.g., "FOVEATED")
+    private String colorDepth; // Stored as ColorDepth enum name, empty = server default
+    private String minimapTheme; // Stored as MinimapTheme enum name (e.g., "COLORBLIND")
+    private final AtomicLong version = new AtomicLong(); // Bumped on every storage write (not persisted)
+    private WaypointSpatialIndex spatialIndex = null; // Built lazily for spatialIndexVersion (not persisted)
+    private long spatialIndexVersion = -1L;
+    private WaypointListView listView = null; // Built lazily for listViewVersion (not persisted)
+    private long listViewVersion = -1L;
+    private WaypointNameIndex nameIndex = null; // Built on first use, then kept in step by add/remove (not persisted)
 
     public WaypointConfig() {
         this.playerUuid = "";
@@ -40,6 +56,9 @@ public class WaypointConfig {
         this.autoDeathWaypoint = true;
         this.hudPosition = HudPosition.TOP_RIGHT.toStorageString();
         this.minimapZoom = 2; // Default zoom level
+        this.minimapLayout = MinimapLayout.LINEAR.name();
+        this.colorDepth = "";
+        this.minimapTheme = MinimapTheme.DEFAULT.name();
     }
 
     public WaypointConfig(@Nonnull String playerUuid) {
@@ -47,6 +66,57 @@ public class WaypointConfig {
         this.playerUuid = playerUuid;
     }
 
+    /**
+     * Gets the write version. HUDs compare it to skip re-reading unchanged waypoints.
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /**
+     * Bumps the write version (called by storage whenever the config is saved).
+     */
+    public void bumpVersion() {
+        version.incrementAndGet();
+    }
+
+    /**
+     * Gets the region index of all waypoints, rebuilt on first use after each write.
+     */
+    @Nonnull
+    public synchronized WaypointSpatialIndex getSpatialIndex() {
+        long current = version.get();
+        if (spatialIndex == null || spatialIndexVersion != current) {
+            spatialIndex = WaypointSpatialIndex.build(new ArrayList<>(getWaypoints()));
+            spatialIndexVersion = current;
+        }
+        return spatialIndex;
+    }
+
+    /**
+     * Gets all waypoints sorted by name, rebuilt on first use after each write.
+     */
+    @Nonnull
+    public synchronized WaypointListView getListView() {
+        long current = version.get();
+        if (listView == null || listViewVersion != current) {
+            listView = WaypointListView.build(new ArrayList<>(getWaypoints()));
+            listViewVersion = current;
+        }
+        return listView;
+    }
+
+    /**
+     * Gets the name index of all waypoints. Adds and removes through this config update it in place.
+     */
+    @Nonnull
+    public synchronized WaypointNameIndex getNameIndex() {
+        if (nameIndex == null) {
+            nameIndex = WaypointNameIndex.build(getWaypoints());
+        }
+        return nameIndex;
+    }
+
     @Nonnull
     public String getPlayerUuid() {
         return playerUuid != null ? playerUuid : "";
@@ -61,8 +131,9 @@ public class WaypointConfig {
         return waypoints != null ? waypoints : new ArrayList<>();
     }
 
-    public void setWaypoints(@Nonnull List<Waypoint> waypoints) {
+    public synchronized void setWaypoints(@Nonnull List<Waypoint> waypoints) {
         this.waypoints = waypoints;
+        this.nameIndex = null;
     }
 
     public int getMaxWaypoints() {
@@ -89,6 +160,80 @@ public class WaypointConfig {
         this.minimapZoom = Math.max(1, Math.min(5, minimapZoom)); // Clamp to 1-5
     }
 
+    /**
+     * Gets the minimap sampling layout.
+     */
+    @Nonnull
+    public MinimapLayout getMinimapLayout() {
+        return MinimapLayout.fromString(minimapLayout);
+    }
+
+    public void setMinimapLayout(@Nonnull MinimapLayout layout) {
+        this.minimapLayout = layout.name();
+    }
+
+    /**
+     * Cycles to the next minimap layout.
+     */
+    public void cycleMinimapLayout() {
+        setMinimapLayout(getMinimapLayout().next());
+    }
+
+    /**
+     * Gets the minimap color theme.
+     */
+    @Nonnull
+    public MinimapTheme getMinimapTheme() {
+        return MinimapTheme.fromString(minimapTheme);
+    }
+
+    public void setMinimapTheme(@Nonnull MinimapTheme theme) {
+        this.minimapTheme = theme.name();
+    }
+
+    /**
+     * Cycles to the next minimap theme.
+     */
+    public void cycleMinimapTheme() {
+        setMinimapTheme(getMinimapTheme().next());
+    }
+
+    /**
+     * Gets the player's own color depth override.
+     * @return the override, or null to use the server default
+     */
+    @Nullable
+    public ColorDepth getColorDepthOverride() {
+        return ColorDepth.fromString(colorDepth);
+    }
+
+    /**
+     * Gets the effective color depth for this player.
+     */
+    @Nonnull
+    public ColorDepth getColorDepth(@Nonnull ColorDepth serverDefault) {
+        ColorDepth override = getColorDepthOverride();
+        return override != null ? override : serverDefault;
+    }
+
+    public void setColorDepthOverride(@Nullable ColorDepth depth) {
+        this.colorDepth = depth != null ? depth.name() : "";
+    }
+
+    /**
+     * Cycles the color depth override: server default -> each mode -> server default.
+     */
+    public void cycleColorDepth() {
+        ColorDepth current = getColorDepthOverride();
+        if (current == null) {
+            setColorDepthOverride(ColorDepth.values()[0]);
+        } else if (current.ordinal() == ColorDepth.values().length - 1) {
+            setColorDepthOverride(null);
+        } else {
+            setColorDepthOverride(current.next());
+        }
+    }
+
     /**
      * Gets the raw HUD position string (for storage/codec).
      */
@@ -137,11 +282,14 @@ public class WaypointConfig {
      * Adds a waypoint to the config.
      * @return true if added, false if max limit reached
      */
-    public boolean addWaypoint(@Nonnull Waypoint waypoint) {
+    public synchronized boolean addWaypoint(@Nonnull Waypoint waypoint) {
         if (getWaypoints().size() >= maxWaypoints) {
             return false;
         }
         getWaypoints().add(waypoint);
+        if (nameIndex != null) {
+            nameIndex.add(waypoint);
+        }
         return true;
     }
 
@@ -149,8 +297,45 @@ public class WaypointConfig {
      * Removes a waypoint by ID.
      * @return true if removed, false if not found
      */
-    public boolean removeWaypoint(@Nonnull String waypointId) {
-        return getWaypoints().removeIf(wp -> wp.getId().equals(waypointId));
+    public synchronized boolean removeWaypoint(@Nonnull String waypointId) {
+        boolean removed = getWaypoints().removeIf(wp -> wp.getId().equals(waypointId));
+        if (removed && nameIndex != null) {
+            nameIndex.remove(waypointId);
+        }
+        return removed;
+    }
+
+    /**
+     * Applies one action to several waypoints in a single pass.
+     * @return the number of waypoints changed (hiding a hidden waypoint does not count)
+     */
+    public synchronized int applyBulk(@Nonnull Set<String> waypointIds, @Nonnull WaypointBulkAction action) {
+        if (waypointIds.isEmpty()) {
+            return 0;
+        }
+        int changed = 0;
+        if (action == WaypointBulkAction.REMOVE) {
+            Iterator<Waypoint> it = getWaypoints().iterator();
+            while (it.hasNext()) {
+                Waypoint wp = it.next();
+                if (waypointIds.contains(wp.getId())) {
+                    it.remove();
+                    if (nameIndex != null) {
+                        nameIndex.remove(wp.getId());
+                    }
+                    changed++;
+                }
+            }
+            return changed;
+        }
+        boolean visible = action == WaypointBulkAction.SHOW;
+        for (Waypoint wp : getWaypoints()) {
+            if (wp.isVisible() != visible && waypointIds.contains(wp.getId())) {
+                wp.setVisible(visible);
+                changed++;
+            }
+        }
+        return changed;
     }
 
     /**
@@ -199,6 +384,12 @@ public class WaypointConfig {
                     (o, i) -> o.hudPosition = i, (o) -> o.hudPosition).add()
             .append(new KeyedCodec<>("MinimapZoom", Codec.INTEGER),
                     (o, i) -> o.minimapZoom = i, (o) -> o.minimapZoom).add()
+            .append(new KeyedCodec<>("MinimapLayout", Codec.STRING),
+                    (o, i) -> o.minimapLayout = i, (o) -> o.minimapLayout).add()
+            .append(new KeyedCodec<>("ColorDepth", Codec.STRING),
+                    (o, i) -> o.colorDepth = i, (o) -> o.colorDepth).add()
+            .append(new KeyedCodec<>("MinimapTheme", Codec.STRING),
+                    (o, i) -> o.minimapTheme = i, (o) -> o.minimapTheme).add()
             .build();
     }
 }
@@ -0,0 +1,247 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One player's waypoints ordered nearest first, shared by the compass ring, the waypoint list page
+ * and /waypoint list. Holds the player's waypoints (detached copies) plus the global waypoints
+ * around them, taken from the global layer's region index.
+ * The order is only recomputed when the player moved {@link #RERANK_BLOCKS} blocks from where it
+ * was last ranked; the entries are then re-sorted in place with an insertion sort, which costs
+ * about one pass over the nearly sorted list. Waypoint writes and entering another global region
+ * rebuild it. Distances shown to the player come from the last position, not from the ranking.
+ * Updated on the world thread; the published {@link Ranking} is immutable and may be read anywhere.
+ */
+public final class WaypointDistanceView {
+    public static final int RERANK_BLOCKS = 16; // Movement that triggers a re-rank (half a chunk)
+    public static final int GLOBAL_RANGE = 4096; // Global waypoints further away are left out
+
+    private Waypoint[] personal = new Waypoint[0]; // Copies for personalVersion
+    private long personalVersion = -1L;
+    private WaypointConfig personalConfig = null;
+    private GlobalWaypointLayer layer = null;
+    private int globalRegionX = Integer.MIN_VALUE; // Region the global query was centered in
+    private int globalRegionZ = Integer.MIN_VALUE;
+
+    private Waypoint[] order = new Waypoint[0];
+    private long[] distSq = new long[0];
+    private int anchorX = 0; // Position of the last ranking
+    private int anchorZ = 0;
+    private int lastX = 0; // Position of the last update
+    private int lastZ = 0;
+    private boolean positioned = false;
+    private volatile Ranking ranking = Ranking.EMPTY;
+
+    // Metrics
+    private long rebuilds = 0L;
+    private long reranks = 0L;
+    private long skipped = 0L;
+
+    /**
+     * Immutable nearest-first order of the waypoints as of one ranking.
+     */
+    public static final class Ranking {
+        public static final Ranking EMPTY = new Ranking(new Waypoint[0], 0, 0);
+
+        private final Waypoint[] order;
+        private final int anchorX;
+        private final int anchorZ;
+        private Map<String, Integer> positions = null; // Built on first indexOf
+
+        private Ranking(@Nonnull Waypoint[] order, int anchorX, int anchorZ) {
+            this.order = order;
+            this.anchorX = anchorX;
+            this.anchorZ = anchorZ;
+        }
+
+        public int size() {
+            return order.length;
+        }
+
+        /**
+         * Waypoint at a rank (0 = nearest); a detached copy or a global layer waypoint - do not mutate.
+         */
+        @Nonnull
+        public Waypoint get(int rank) {
+            return order[rank];
+        }
+
+        public int getAnchorX() {
+            return anchorX;
+        }
+
+        public int getAnchorZ() {
+            return anchorZ;
+        }
+
+        /**
+         * Rank of a waypoint id, or -1 if it is not ranked.
+         */
+        public synchronized int indexOf(@Nonnull String id) {
+            if (positions == null) {
+                positions = new HashMap<>(order.length * 2);
+                for (int i = 0; i < order.length; i++) {
+                    positions.putIfAbsent(order[i].getId(), i);
+                }
+            }
+            return positions.getOrDefault(id, -1);
+        }
+
+        /**
+         * The player's own waypoints, nearest first.
+         */
+        @Nonnull
+        public List<Waypoint> personal() {
+            List<Waypoint> result = new ArrayList<>(order.length);
+            for (Waypoint wp : order) {
+                if (!wp.isGlobal()) {
+                    result.add(wp);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+    }
+
+    /**
+     * Moves the view to the player's block position and re-ranks if needed.
+     * @return the current ranking
+     */
+    @Nonnull
+    public synchronized Ranking update(@Nonnull WaypointConfig config, @Nonnull GlobalWaypointLayer globals,
+                                       int blockX, int blockZ) {
+        lastX = blockX;
+        lastZ = blockZ;
+        positioned = true;
+        if (isStale(config, globals) || (!globals.isEmpty()
+                && (WaypointSpatialIndex.regionOf(blockX) != globalRegionX
+                    || WaypointSpatialIndex.regionOf(blockZ) != globalRegionZ))) {
+            rebuild(config, globals);
+        } else if (Math.abs(blockX - anchorX) >= RERANK_BLOCKS || Math.abs(blockZ - anchorZ) >= RERANK_BLOCKS) {
+            rerank();
+        } else {
+            skipped++;
+        }
+        return ranking;
+    }
+
+    /**
+     * Current ranking, rebuilt at the last position if waypoints changed since
+     * (for pages and commands that run while the HUD is paused).
+     */
+    @Nonnull
+    public synchronized Ranking getRanking(@Nonnull WaypointConfig config, @Nonnull GlobalWaypointLayer globals) {
+        if (positioned && isStale(config, globals)) {
+            rebuild(config, globals);
+        }
+        return ranking;
+    }
+
+    /**
+     * Last published ranking, without checking for waypoint changes.
+     */
+    @Nonnull
+    public Ranking getRanking() {
+        return ranking;
+    }
+
+    /**
+     * Whether the view has a position yet (before the first update the ranking is empty).
+     */
+    public synchronized boolean isPositioned() {
+        return positioned;
+    }
+
+    /**
+     * Horizontal distance in blocks from the player's last known position.
+     */
+    public synchronized int distanceTo(@Nonnull Waypoint waypoint) {
+        return (int) Math.round(waypoint.distance2DTo(lastX, lastZ));
+    }
+
+    private boolean isStale(@Nonnull WaypointConfig config, @Nonnull GlobalWaypointLayer globals) {
+        return config != personalConfig || config.getVersion() != personalVersion || globals != layer;
+    }
+
+    private void rebuild(@Nonnull WaypointConfig config, @Nonnull GlobalWaypointLayer globals) {
+        long version = config.getVersion();
+        if (config != personalConfig || version != personalVersion) {
+            // Detached copies - the ranking is read off the world thread while edits mutate in place
+            List<Waypoint> waypoints = config.getWaypoints();
+            personal = new Waypoint[waypoints.size()];
+            for (int i = 0; i < personal.length; i++) {
+                personal[i] = waypoints.get(i).copy();
+            }
+            personalConfig = config;
+            personalVersion = version;
+        }
+        layer = globals;
+        globalRegionX = WaypointSpatialIndex.regionOf(lastX);
+        globalRegionZ = WaypointSpatialIndex.regionOf(lastZ);
+        List<Waypoint> nearbyGlobals = globals.queryAround(lastX, lastZ, GLOBAL_RANGE);
+
+        order = Arrays.copyOf(personal, personal.length + nearbyGlobals.size());
+        for (int i = 0; i < nearbyGlobals.size(); i++) {
+            order[personal.length + i] = nearbyGlobals.get(i);
+        }
+        anchorX = lastX;
+        anchorZ = lastZ;
+        Arrays.sort(order, Comparator.comparingLong(wp -> distSqTo(wp, anchorX, anchorZ)));
+        distSq = new long[order.length];
+        for (int i = 0; i < order.length; i++) {
+            distSq[i] = distSqTo(order[i], anchorX, anchorZ);
+        }
+        rebuilds++;
+        publish();
+    }
+
+    /**
+     * Recomputes the distances from the new anchor and restores the order by insertion sort.
+     * After a short move the list is nearly sorted, so this is close to one linear pass.
+     */
+    private void rerank() {
+        anchorX = lastX;
+        anchorZ = lastZ;
+        for (int i = 0; i < order.length; i++) {
+            distSq[i] = distSqTo(order[i], anchorX, anchorZ);
+        }
+        for (int i = 1; i < order.length; i++) {
+            Waypoint wp = order[i];
+            long d = distSq[i];
+            int j = i - 1;
+            while (j >= 0 && distSq[j] > d) {
+                order[j + 1] = order[j];
+                distSq[j + 1] = distSq[j];
+                j--;
+            }
+            order[j + 1] = wp;
+            distSq[j + 1] = d;
+        }
+        reranks++;
+        publish();
+    }
+
+    private void publish() {
+        ranking = new Ranking(order.clone(), anchorX, anchorZ);
+    }
+
+    private static long distSqTo(@Nonnull Waypoint wp, int x, int z) {
+        long dx = wp.getX() - x;
+        long dz = wp.getZ() - z;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Formats view metrics, e.g. "ranked 56: 3 rebuilds, 41 re-ranks, 900 skipped".
+     */
+    @Nonnull
+    public synchronized String describe() {
+        return "ranked " + order.length + ": " + rebuilds + " rebuilds, " + reranks + " re-ranks, " + skipped + " skipped";
+    }
+}
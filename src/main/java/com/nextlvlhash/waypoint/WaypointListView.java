@@ -0,0 +1,72 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Waypoints sorted by name (case-insensitive, ties by id) for paged lists.
+ * Built from a waypoint list and never modified; {@link WaypointConfig#getListView()} rebuilds it
+ * when the config is written. Every waypoint has a sort key, so a list can remember its position
+ * as a key and find it again in O(log n) after the waypoints change.
+ */
+public final class WaypointListView {
+    private final Waypoint[] sorted;
+    private final String[] keys; // Sort key per position
+
+    private WaypointListView(@Nonnull List<Waypoint> waypoints) {
+        Waypoint[] byKey = waypoints.toArray(new Waypoint[0]);
+        Arrays.sort(byKey, Comparator.comparing(WaypointListView::sortKey));
+        this.sorted = byKey;
+        this.keys = new String[byKey.length];
+        for (int i = 0; i < byKey.length; i++) {
+            keys[i] = sortKey(byKey[i]);
+        }
+    }
+
+    @Nonnull
+    public static WaypointListView build(@Nonnull List<Waypoint> waypoints) {
+        return new WaypointListView(waypoints);
+    }
+
+    /**
+     * Sort key of a waypoint: lower-case name, then id.
+     */
+    @Nonnull
+    public static String sortKey(@Nonnull Waypoint waypoint) {
+        return waypoint.getName().toLowerCase(Locale.ROOT) + '\0' + waypoint.getId();
+    }
+
+    public int size() {
+        return sorted.length;
+    }
+
+    @Nonnull
+    public Waypoint get(int position) {
+        return sorted[position];
+    }
+
+    @Nonnull
+    public String keyAt(int position) {
+        return keys[position];
+    }
+
+    /**
+     * First position whose key is not below the given key (size() if there is none).
+     */
+    public int lowerBound(@Nonnull String key) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,334 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Name index over a set of waypoints: exact lookup by normalized name, a prefix trie for
+ * completions and n-gram postings for substring and fuzzy (trigram) search.
+ * Kept in step with the waypoints by {@link #add} and {@link #remove} (a rename is a remove
+ * followed by an add), so queries only visit the waypoints that share a prefix or n-grams
+ * with the query instead of scanning every name.
+ */
+public final class WaypointNameIndex {
+    private static final int MAX_GRAM = 3;
+    private static final double FUZZY_THRESHOLD = 0.3; // Minimum trigram similarity of fuzzy matches
+
+    // Ranking tiers of search results
+    private static final int EXACT = 3;
+    private static final int PREFIX = 2;
+    private static final int SUBSTRING = 1;
+    private static final int FUZZY = 0;
+
+    private final Map<String, Waypoint> waypoints = new HashMap<>(); // By id
+    private final Map<String, String> keys = new HashMap<>(); // Normalized name by id
+    private final Map<String, Set<String>> grams = new HashMap<>(); // Ids by name substring of 1-3 chars
+    private final Node root = new Node();
+
+    /**
+     * Trie node; ids are the waypoints whose normalized name ends here.
+     */
+    private static final class Node {
+        private final TreeMap<Character, Node> children = new TreeMap<>();
+        private final Set<String> ids = new LinkedHashSet<>();
+        private int size = 0; // Waypoints in this subtree
+    }
+
+    @Nonnull
+    public static WaypointNameIndex build(@Nonnull Collection<Waypoint> waypoints) {
+        WaypointNameIndex index = new WaypointNameIndex();
+        for (Waypoint wp : waypoints) {
+            index.add(wp);
+        }
+        return index;
+    }
+
+    /**
+     * Normalized form of a name: trimmed, lower-case, runs of whitespace as one space.
+     */
+    @Nonnull
+    public static String normalize(@Nullable String name) {
+        if (name == null) {
+            return "";
+        }
+        return name.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized int size() {
+        return waypoints.size();
+    }
+
+    /**
+     * Indexes a waypoint under its current name (re-indexes it if the id is already present).
+     */
+    public synchronized void add(@Nonnull Waypoint waypoint) {
+        String id = waypoint.getId();
+        if (keys.containsKey(id)) {
+            remove(id);
+        }
+        String key = normalize(waypoint.getName());
+        waypoints.put(id, waypoint);
+        keys.put(id, key);
+
+        Node node = root;
+        node.size++;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            node.size++;
+        }
+        node.ids.add(id);
+
+        for (String gram : gramsOf(key)) {
+            grams.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+        }
+    }
+
+    /**
+     * Drops a waypoint from the index (under the name it was indexed with).
+     */
+    public synchronized void remove(@Nonnull String id) {
+        String key = keys.remove(id);
+        if (key == null) {
+            return;
+        }
+        waypoints.remove(id);
+
+        Node node = root;
+        node.size--;
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (--child.size == 0) {
+                node.children.remove(key.charAt(i)); // Prune the empty branch
+                break;
+            }
+            node = child;
+        }
+        node.ids.remove(id);
+
+        for (String gram : gramsOf(key)) {
+            Set<String> ids = grams.get(gram);
+            if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                grams.remove(gram);
+            }
+        }
+    }
+
+    /**
+     * Waypoints whose name equals the given name, ignoring case and extra whitespace.
+     */
+    @Nonnull
+    public synchronized List<Waypoint> findExact(@Nonnull String name) {
+        Node node = find(normalize(name));
+        if (node == null || node.ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Waypoint> result = new ArrayList<>(node.ids.size());
+        for (String id : node.ids) {
+            result.add(waypoints.get(id));
+        }
+        return result;
+    }
+
+    /**
+     * First waypoint whose name equals the given name, ignoring case, or null.
+     */
+    @Nullable
+    public Waypoint findFirst(@Nonnull String name) {
+        List<Waypoint> found = findExact(name);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Names (as stored) starting with the given prefix, in alphabetical order.
+     */
+    @Nonnull
+    public List<String> complete(@Nonnull String prefix, int limit) {
+        List<Waypoint> found = withPrefix(prefix, limit);
+        List<String> result = new ArrayList<>(found.size());
+        for (Waypoint wp : found) {
+            result.add(wp.getName());
+        }
+        return result;
+    }
+
+    /**
+     * Waypoints whose name starts with the given prefix, ignoring case, in alphabetical order.
+     */
+    @Nonnull
+    public synchronized List<Waypoint> withPrefix(@Nonnull String prefix, int limit) {
+        List<Waypoint> result = new ArrayList<>();
+        Node node = find(normalize(prefix));
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    private void collect(@Nonnull Node node, @Nonnull List<Waypoint> result, int limit) {
+        for (String id : node.ids) {
+            if (result.size() >= limit) {
+                return;
+            }
+            result.add(waypoints.get(id));
+        }
+        for (Node child : node.children.values()) {
+            if (result.size() >= limit) {
+                return;
+            }
+            collect(child, result, limit);
+        }
+    }
+
+    /**
+     * Waypoints matching a query, best first: exact names, then names starting with the query,
+     * names containing it, and finally names sharing enough trigrams with it (typos).
+     * Ties are ordered by similarity, then by name.
+     */
+    @Nonnull
+    public synchronized List<Waypoint> search(@Nonnull String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Double> scores = new HashMap<>();
+
+        // Substring candidates: n-grams up to 3 chars are indexed as-is, longer queries
+        // intersect the postings of their trigrams and are verified
+        for (String id : substringCandidates(q)) {
+            String key = keys.get(id);
+            if (key.contains(q)) {
+                int tier = key.equals(q) ? EXACT : key.startsWith(q) ? PREFIX : SUBSTRING;
+                scores.put(id, tier + similarity(q, key));
+            }
+        }
+
+        // Fuzzy candidates: count shared trigrams per waypoint
+        Set<String> queryTrigrams = trigramsOf(q);
+        if (!queryTrigrams.isEmpty()) {
+            Map<String, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                for (String id : grams.getOrDefault(trigram, Collections.emptySet())) {
+                    if (!scores.containsKey(id)) {
+                        shared.merge(id, 1, Integer::sum);
+                    }
+                }
+            }
+            for (Map.Entry<String, Integer> entry : shared.entrySet()) {
+                int nameTrigrams = trigramCount(keys.get(entry.getKey()));
+                int common = entry.getValue();
+                double similarity = (double) common / (queryTrigrams.size() + nameTrigrams - common);
+                if (similarity >= FUZZY_THRESHOLD) {
+                    scores.put(entry.getKey(), FUZZY + similarity);
+                }
+            }
+        }
+
+        List<String> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort(Comparator.<String>comparingDouble(scores::get).reversed()
+                .thenComparing(keys::get)
+                .thenComparing(Comparator.naturalOrder()));
+        List<Waypoint> result = new ArrayList<>(Math.min(limit, ranked.size()));
+        for (String id : ranked) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(waypoints.get(id));
+        }
+        return result;
+    }
+
+    @Nullable
+    private Node find(@Nonnull String key) {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node;
+    }
+
+    @Nonnull
+    private Collection<String> substringCandidates(@Nonnull String q) {
+        if (q.length() <= MAX_GRAM) {
+            return grams.getOrDefault(q, Collections.emptySet());
+        }
+        // Start from the rarest trigram and keep the ids present in every posting
+        Set<String> result = null;
+        List<Set<String>> postings = new ArrayList<>();
+        for (String trigram : trigramsOf(q)) {
+            Set<String> ids = grams.get(trigram);
+            if (ids == null) {
+                return Collections.emptySet();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        for (Set<String> ids : postings) {
+            if (result == null) {
+                result = new HashSet<>(ids);
+            } else {
+                result.retainAll(ids);
+            }
+        }
+        return result != null ? result : Collections.emptySet();
+    }
+
+    /**
+     * Trigram similarity of two normalized names (1 when equal), for ordering within a tier.
+     */
+    private static double similarity(@Nonnull String a, @Nonnull String b) {
+        if (a.equals(b)) {
+            return 0.999;
+        }
+        Set<String> aTrigrams = trigramsOf(a);
+        Set<String> bTrigrams = trigramsOf(b);
+        if (aTrigrams.isEmpty() || bTrigrams.isEmpty()) {
+            return (double) a.length() / b.length() * 0.5; // Short queries: prefer shorter names
+        }
+        int common = 0;
+        for (String trigram : aTrigrams) {
+            if (bTrigrams.contains(trigram)) {
+                common++;
+            }
+        }
+        return Math.min(0.999, (double) common / (aTrigrams.size() + bTrigrams.size() - common));
+    }
+
+    private static int trigramCount(@Nonnull String key) {
+        return trigramsOf(key).size();
+    }
+
+    @Nonnull
+    private static Set<String> trigramsOf(@Nonnull String key) {
+        Set<String> result = new HashSet<>();
+        for (int i = 0; i + MAX_GRAM <= key.length(); i++) {
+            result.add(key.substring(i, i + MAX_GRAM));
+        }
+        return result;
+    }
+
+    /**
+     * Distinct substrings of 1 to 3 chars.
+     */
+    @Nonnull
+    private static Set<String> gramsOf(@Nonnull String key) {
+        Set<String> result = new HashSet<>();
+        for (int length = 1; length <= MAX_GRAM; length++) {
+            for (int i = 0; i + length <= key.length(); i++) {
+                result.add(key.substring(i, i + length));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,386 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Filter, sort order and page of a /waypoint list query, e.g. "cat:mine hidden r:500 sort:created page:2".
+ * The same filters select the waypoints of /waypoint bulk.
+ * Queries are answered from the config's indexes: a name prefix walks the name trie, a radius asks the
+ * spatial index, name order comes from the sorted list view and distance order from the session's
+ * nearest-first ranking. The remaining filters only run on those candidates, and only the rows of the
+ * requested page are kept.
+ */
+public final class WaypointQuery {
+    public static final int PAGE_SIZE = 10;
+    public static final String FILTER_SYNTAX = "[name|pattern*] [cat:<category>] [visible|hidden] [r:<blocks>] [older:<n>d|h|m]";
+    public static final String SYNTAX = FILTER_SYNTAX + " [sort:name|distance|created] [page:<n>]";
+
+    /**
+     * Sort orders of a query.
+     */
+    public enum Sort {
+        NAME("name"),
+        DISTANCE("distance"),
+        CREATED("created");
+
+        private final String displayName;
+
+        Sort(String displayName) {
+            this.displayName = displayName;
+        }
+
+        @Nonnull
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        @Nullable
+        public static Sort fromString(@Nonnull String value) {
+            for (Sort sort : values()) {
+                if (sort.displayName.equalsIgnoreCase(value)) {
+                    return sort;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * One page of a query's results.
+     */
+    public static final class Result {
+        private final List<Waypoint> rows;
+        private final int total;
+        private final int page;
+
+        private Result(@Nonnull List<Waypoint> rows, int total, int page) {
+            this.rows = rows;
+            this.total = total;
+            this.page = page;
+        }
+
+        @Nonnull
+        public List<Waypoint> getRows() {
+            return rows;
+        }
+
+        /**
+         * Number of waypoints matching the filters, over all pages.
+         */
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Page shown (1-based, clamped to the last page).
+         */
+        public int getPage() {
+            return page;
+        }
+
+        public int getPages() {
+            return Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        }
+    }
+
+    private String prefix = ""; // Name prefix, or a pattern if it contains '*'
+    @Nullable
+    private Pattern namePattern = null;
+    @Nullable
+    private WaypointCategory category = null;
+    @Nullable
+    private Boolean visible = null; // null = both
+    private int radius = 0; // 0 = anywhere
+    private long olderThanMs = 0L; // 0 = any age
+    private String olderArg = null;
+    private Sort sort = Sort.DISTANCE;
+    private int page = 1;
+
+    /**
+     * Parses query arguments. Bare numbers are a page, other bare words form the name prefix.
+     * @throws IllegalArgumentException with a message for the player if an argument is invalid
+     */
+    @Nonnull
+    public static WaypointQuery parse(@Nonnull String args) {
+        WaypointQuery query = new WaypointQuery();
+        List<String> words = new ArrayList<>();
+        for (String token : args.trim().split("\\s+")) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            String lower = token.toLowerCase(Locale.ROOT);
+            int colon = lower.indexOf(':');
+            String key = colon > 0 ? lower.substring(0, colon) : lower;
+            String value = colon > 0 ? token.substring(colon + 1) : "";
+
+            if (lower.equals("visible") || lower.equals("hidden")) {
+                query.visible = lower.equals("visible");
+            } else if (colon > 0 && (key.equals("cat") || key.equals("category"))) {
+                query.category = parseCategory(value);
+            } else if (colon > 0 && (key.equals("r") || key.equals("radius"))) {
+                query.radius = parsePositive(value, "radius");
+            } else if (colon > 0 && key.equals("older")) {
+                query.olderThanMs = parseAge(value);
+                query.olderArg = value;
+            } else if (colon > 0 && key.equals("sort")) {
+                Sort sort = Sort.fromString(value);
+                if (sort == null) {
+                    throw new IllegalArgumentException("Unknown sort '" + value + "' (name, distance or created)");
+                }
+                query.sort = sort;
+            } else if (colon > 0 && key.equals("page")) {
+                query.page = parsePositive(value, "page");
+            } else if (colon > 0 && key.equals("name")) {
+                words.add(value);
+            } else if (lower.matches("\\d+")) {
+                query.page = parsePositive(lower, "page");
+            } else {
+                words.add(token);
+            }
+        }
+        query.prefix = String.join(" ", words);
+        if (query.prefix.contains("*")) {
+            // Glob over the whole normalized name, e.g. "camp*" or "*ore*"
+            String[] parts = WaypointNameIndex.normalize(query.prefix).split("\\*", -1);
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < parts.length; i++) {
+                if (i > 0) {
+                    regex.append(".*");
+                }
+                if (!parts[i].isEmpty()) {
+                    regex.append(Pattern.quote(parts[i]));
+                }
+            }
+            query.namePattern = Pattern.compile(regex.toString());
+        }
+        return query;
+    }
+
+    /**
+     * Parses an age like "7d", "12h" or "30m" (a bare number is days).
+     */
+    private static long parseAge(@Nonnull String value) {
+        String lower = value.toLowerCase(Locale.ROOT);
+        long unit = TimeUnit.DAYS.toMillis(1);
+        if (lower.endsWith("d") || lower.endsWith("h") || lower.endsWith("m")) {
+            char suffix = lower.charAt(lower.length() - 1);
+            unit = suffix == 'h' ? TimeUnit.HOURS.toMillis(1) : suffix == 'm' ? TimeUnit.MINUTES.toMillis(1) : unit;
+            lower = lower.substring(0, lower.length() - 1);
+        }
+        return parsePositive(lower, "age") * unit;
+    }
+
+    @Nonnull
+    private static WaypointCategory parseCategory(@Nonnull String value) {
+        for (WaypointCategory category : WaypointCategory.values()) {
+            if (category.name().equalsIgnoreCase(value) || category.getDisplayName().equalsIgnoreCase(value)) {
+                return category;
+            }
+        }
+        throw new IllegalArgumentException("Unknown category '" + value + "'");
+    }
+
+    private static int parsePositive(@Nonnull String value, @Nonnull String what) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid " + what + " '" + value + "'");
+    }
+
+    /**
+     * Whether any filter is set (bulk operations refuse to touch every waypoint by accident).
+     */
+    public boolean hasFilters() {
+        return !prefix.isEmpty() || category != null || visible != null || radius > 0 || olderThanMs > 0L;
+    }
+
+    /**
+     * Arguments that repeat this query on another page, for "next page" hints.
+     */
+    @Nonnull
+    public String toArgs(int targetPage) {
+        StringBuilder args = new StringBuilder();
+        if (!prefix.isEmpty()) {
+            args.append(prefix).append(' ');
+        }
+        if (category != null) {
+            args.append("cat:").append(category.name().toLowerCase(Locale.ROOT)).append(' ');
+        }
+        if (visible != null) {
+            args.append(visible ? "visible " : "hidden ");
+        }
+        if (radius > 0) {
+            args.append("r:").append(radius).append(' ');
+        }
+        if (olderArg != null) {
+            args.append("older:").append(olderArg).append(' ');
+        }
+        if (sort != Sort.DISTANCE) {
+            args.append("sort:").append(sort.getDisplayName()).append(' ');
+        }
+        return args.append("page:").append(targetPage).toString();
+    }
+
+    /**
+     * Runs the query over a player's waypoints.
+     *
+     * @param ranking the session's nearest-first ranking at the player's position, or null without one
+     *                (distance order then sorts the candidates itself)
+     * @param hasPosition whether blockX/blockZ are known; without them radius filters and distance order are skipped
+     */
+    @Nonnull
+    public Result run(@Nonnull WaypointConfig config,
+                      @Nullable WaypointDistanceView.Ranking ranking,
+                      boolean hasPosition, int blockX, int blockZ) {
+        List<Waypoint> ordered = ordered(config, ranking, hasPosition, blockX, blockZ);
+
+        // Remaining filters; only the rows of the requested page are kept
+        List<Waypoint> rows = new ArrayList<>(PAGE_SIZE);
+        int total = collect(ordered, hasPosition, blockX, blockZ, (page - 1) * PAGE_SIZE, PAGE_SIZE, rows);
+        int pages = Math.max(1, (total + PAGE_SIZE - 1) / PAGE_SIZE);
+        if (page > pages) {
+            // Past the end - show the last page instead
+            collect(ordered, hasPosition, blockX, blockZ, (pages - 1) * PAGE_SIZE, PAGE_SIZE, rows);
+            return new Result(rows, total, pages);
+        }
+        return new Result(rows, total, page);
+    }
+
+    /**
+     * Every waypoint matching the filters, in the query's order (sort and page only matter for listing).
+     */
+    @Nonnull
+    public List<Waypoint> matchAll(@Nonnull WaypointConfig config,
+                                   @Nullable WaypointDistanceView.Ranking ranking,
+                                   boolean hasPosition, int blockX, int blockZ) {
+        List<Waypoint> matches = new ArrayList<>();
+        collect(ordered(config, ranking, hasPosition, blockX, blockZ), hasPosition, blockX, blockZ,
+                0, Integer.MAX_VALUE, matches);
+        return matches;
+    }
+
+    /**
+     * Candidates from the most selective index, in the requested order.
+     */
+    @Nonnull
+    private List<Waypoint> ordered(@Nonnull WaypointConfig config,
+                                   @Nullable WaypointDistanceView.Ranking ranking,
+                                   boolean hasPosition, int blockX, int blockZ) {
+        List<Waypoint> candidates = null; // null = every waypoint
+        String literalPrefix = namePattern != null
+                ? WaypointNameIndex.normalize(prefix.substring(0, prefix.indexOf('*'))) : prefix;
+        if (!literalPrefix.isEmpty()) {
+            candidates = config.getNameIndex().withPrefix(literalPrefix, Integer.MAX_VALUE);
+        } else if (radius > 0 && hasPosition) {
+            candidates = config.getSpatialIndex().query(blockX - radius, blockZ - radius, blockX + radius, blockZ + radius);
+        }
+
+        // Candidates in the requested order
+        List<Waypoint> ordered;
+        Sort order = sort == Sort.DISTANCE && !hasPosition ? Sort.NAME : sort;
+        if (order == Sort.DISTANCE && ranking != null) {
+            ordered = inOrder(ranking.personal(), candidates);
+        } else if (order == Sort.NAME && candidates == null) {
+            // Read through the sorted view without copying it
+            WaypointListView view = config.getListView();
+            ordered = new AbstractList<Waypoint>() {
+                @Override
+                public Waypoint get(int index) {
+                    return view.get(index);
+                }
+
+                @Override
+                public int size() {
+                    return view.size();
+                }
+            };
+        } else {
+            ordered = new ArrayList<>(candidates != null ? candidates : config.getWaypoints());
+            ordered.sort(comparator(order, blockX, blockZ));
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Applies the filters in order, keeping up to limit matches from the given match index.
+     * @return the number of matches
+     */
+    private int collect(@Nonnull List<Waypoint> ordered, boolean hasPosition, int blockX, int blockZ,
+                        int first, int limit, @Nonnull List<Waypoint> rows) {
+        rows.clear();
+        long radiusSq = (long) radius * radius;
+        String normalizedPrefix = WaypointNameIndex.normalize(prefix);
+        long createdBefore = System.currentTimeMillis() - olderThanMs;
+        int total = 0;
+        for (Waypoint wp : ordered) {
+            if (category != null && wp.getCategory() != category) continue;
+            if (visible != null && wp.isVisible() != visible) continue;
+            if (radius > 0 && hasPosition && distSq(wp, blockX, blockZ) > radiusSq) continue;
+            if (olderThanMs > 0L && wp.getCreatedTime() > createdBefore) continue;
+            if (namePattern != null) {
+                if (!namePattern.matcher(WaypointNameIndex.normalize(wp.getName())).matches()) continue;
+            } else if (!normalizedPrefix.isEmpty()
+                    && !WaypointNameIndex.normalize(wp.getName()).startsWith(normalizedPrefix)) continue;
+            if (total >= first && rows.size() < limit) {
+                rows.add(wp);
+            }
+            total++;
+        }
+        return total;
+    }
+
+    /**
+     * The ranked waypoints that are candidates, in ranking order.
+     */
+    @Nonnull
+    private static List<Waypoint> inOrder(@Nonnull List<Waypoint> ranked, @Nullable List<Waypoint> candidates) {
+        if (candidates == null) {
+            return ranked;
+        }
+        Set<String> ids = new HashSet<>();
+        for (Waypoint wp : candidates) {
+            ids.add(wp.getId());
+        }
+        List<Waypoint> result = new ArrayList<>(candidates.size());
+        for (Waypoint wp : ranked) {
+            if (ids.contains(wp.getId())) {
+                result.add(wp);
+            }
+        }
+        return result;
+    }
+
+    @Nonnull
+    private static Comparator<Waypoint> comparator(@Nonnull Sort order, int blockX, int blockZ) {
+        switch (order) {
+            case DISTANCE:
+                return Comparator.comparingLong(wp -> distSq(wp, blockX, blockZ));
+            case CREATED:
+                return Comparator.comparingLong(Waypoint::getCreatedTime).reversed(); // Newest first
+            default:
+                return Comparator.comparing(WaypointListView::sortKey);
+        }
+    }
+
+    private static long distSq(@Nonnull Waypoint wp, int x, int z) {
+        long dx = wp.getX() - x;
+        long dz = wp.getZ() - z;
+        return dx * dx + dz * dz;
+    }
+}
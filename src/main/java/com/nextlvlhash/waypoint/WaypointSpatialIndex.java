@@ -0,0 +1,90 @@
+package com.nextlvlhash.waypoint;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Grid of waypoints by region ({@link #REGION_BLOCKS} x {@link #REGION_BLOCKS} blocks) for area queries.
+ * Built from a waypoint list and never modified; {@link WaypointConfig#getSpatialIndex()} rebuilds it
+ * when the config is written.
+ */
+public final class WaypointSpatialIndex {
+    public static final int REGION_BLOCKS = 512;
+    private static final int REGION_SHIFT = 9;
+
+    private final Map<Long, List<Waypoint>> regions = new HashMap<>();
+    private final int size;
+
+    private WaypointSpatialIndex(@Nonnull List<Waypoint> waypoints) {
+        for (Waypoint wp : waypoints) {
+            regions.computeIfAbsent(regionKey(regionOf(wp.getX()), regionOf(wp.getZ())), k -> new ArrayList<>(4)).add(wp);
+        }
+        this.size = waypoints.size();
+    }
+
+    @Nonnull
+    public static WaypointSpatialIndex build(@Nonnull List<Waypoint> waypoints) {
+        return new WaypointSpatialIndex(waypoints);
+    }
+
+    /**
+     * Region coordinate of a block coordinate.
+     */
+    public static int regionOf(int block) {
+        return block >> REGION_SHIFT;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Waypoints inside a block-aligned box (bounds inclusive). Visits only the regions the box overlaps,
+     * or only the occupied regions when the box spans more regions than are occupied.
+     */
+    @Nonnull
+    public List<Waypoint> query(int minX, int minZ, int maxX, int maxZ) {
+        if (regions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Waypoint> result = new ArrayList<>();
+        int minRegionX = regionOf(minX);
+        int minRegionZ = regionOf(minZ);
+        int maxRegionX = regionOf(maxX);
+        int maxRegionZ = regionOf(maxZ);
+        long spanned = (long) (maxRegionX - minRegionX + 1) * (maxRegionZ - minRegionZ + 1);
+
+        if (spanned > regions.size()) {
+            for (List<Waypoint> region : regions.values()) {
+                addInBox(region, minX, minZ, maxX, maxZ, result);
+            }
+            return result;
+        }
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                List<Waypoint> region = regions.get(regionKey(regionX, regionZ));
+                if (region != null) {
+                    addInBox(region, minX, minZ, maxX, maxZ, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void addInBox(@Nonnull List<Waypoint> region, int minX, int minZ, int maxX, int maxZ,
+                                 @Nonnull List<Waypoint> result) {
+        for (Waypoint wp : region) {
+            if (wp.getX() >= minX && wp.getX() <= maxX && wp.getZ() >= minZ && wp.getZ() <= maxZ) {
+                result.add(wp);
+            }
+        }
+    }
+
+    private static long regionKey(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+}
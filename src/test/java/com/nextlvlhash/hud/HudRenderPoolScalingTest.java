@@ -0,0 +1,164 @@
+package com.nextlvlhash.hud;
+
+import com.hypixel.hytale.math.vector.Vector3d;
+import com.nextlvlhash.waypoint.GlobalWaypointLayer;
+import com.nextlvlhash.waypoint.Waypoint;
+import com.nextlvlhash.waypoint.WaypointCategory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures how HUD frame throughput scales with the render pool's thread count.
+ * Every task takes one player's {@link HudFrame} and samples the full minimap through
+ * {@link MinimapSampler}, the same code {@link MinimapHud} runs per pixel.
+ * Scaling must be near-linear up to the physical core count, which defaults to the available
+ * processors; on hosts with SMT pass the real count: {@code ./gradlew benchmark -PphysicalCores=8}.
+ */
+@Tag("benchmark")
+class HudRenderPoolScalingTest {
+    private static final int PLAYERS = 64;
+    private static final int FRAMES_PER_PLAYER = 16;  // Distinct frames per player (moving and turning)
+    private static final int ROUNDS = 20;             // Times each player's frames are rendered per run
+    private static final int WARMUP_RUNS = 3;
+    private static final double MIN_EFFICIENCY = 0.6; // Required speedup per thread
+
+    @AfterEach
+    void stopPool() {
+        HudRenderPool.stop();
+    }
+
+    @Test
+    void throughputScalesNearLinearly() throws InterruptedException {
+        List<List<HudFrame>> frames = new ArrayList<>();
+        for (int p = 0; p < PLAYERS; p++) {
+            frames.add(playerFrames(p));
+        }
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        int physicalCores = Integer.getInteger("benchmark.physicalCores", cores);
+        List<Integer> threadCounts = new ArrayList<>();
+        for (int threads = 1; threads < cores; threads *= 2) {
+            threadCounts.add(threads);
+        }
+        threadCounts.add(cores);
+
+        double single = 0.0;
+        List<String> failures = new ArrayList<>();
+        for (int threads : threadCounts) {
+            HudRenderPool.startThreads(threads);
+            for (int i = 0; i < WARMUP_RUNS; i++) {
+                runFrames(frames);
+            }
+            long start = System.nanoTime();
+            long checksum = runFrames(frames);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            HudRenderPool.stop();
+
+            double framesPerSecond = PLAYERS * FRAMES_PER_PLAYER * ROUNDS / seconds;
+            if (threads == 1) {
+                single = framesPerSecond;
+            }
+            double speedup = framesPerSecond / single;
+            System.out.printf("[HudMod] %2d threads: %8.0f frames/s, speedup %.2fx, efficiency %.0f%% (checksum %d)%n",
+                    threads, framesPerSecond, speedup, speedup / threads * 100.0, checksum);
+            if (threads <= physicalCores && speedup < MIN_EFFICIENCY * threads) {
+                failures.add(String.format("%d threads: %.2fx", threads, speedup));
+            }
+        }
+
+        assertTrue(failures.isEmpty(), "Speedup below " + MIN_EFFICIENCY + " x threads: " + failures);
+    }
+
+    /**
+     * Renders every player's frames {@link #ROUNDS} times on the pool and waits for them.
+     * @return sum of all sampled colors, so the work can't be optimized away
+     */
+    private static long runFrames(List<List<HudFrame>> frames) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(PLAYERS * FRAMES_PER_PLAYER * ROUNDS);
+        AtomicLong checksum = new AtomicLong();
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int f = 0; f < FRAMES_PER_PLAYER; f++) {
+                for (List<HudFrame> player : frames) {
+                    HudFrame frame = player.get(f);
+                    assertTrue(HudRenderPool.submit(() -> {
+                        checksum.addAndGet(render(frame));
+                        done.countDown();
+                    }));
+                }
+            }
+        }
+        assertTrue(done.await(5, TimeUnit.MINUTES), "Frames did not finish");
+        return checksum.get();
+    }
+
+    /**
+     * Samples every visible pixel of a frame, as a full minimap redraw does.
+     */
+    private static long render(HudFrame frame) {
+        MinimapLayout layout = MinimapLayout.FOVEATED;
+        ColorDepth colorDepth = ColorDepth.PALETTE_64_DITHERED;
+        int[] themeLut = MinimapTheme.DEFAULT.getLut(TimeBand.DAY, colorDepth);
+        double radians = Math.toRadians(frame.getYawDegrees() + 180.0);
+        MinimapSampler sampler = new MinimapSampler(frame.getChunks(), frame.getWaypoints(), layout,
+                MinimapLayout.MAX_ZOOM, colorDepth, themeLut,
+                (int) Math.floor(frame.getPosition().getX()), (int) Math.floor(frame.getPosition().getZ()),
+                Math.cos(radians), -Math.sin(radians));
+
+        long sum = 0;
+        for (int i : layout.getCenterOutOrder()) {
+            sum += sampler.sample(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Frames of one player walking and turning, each with the chunk colors the world thread would capture.
+     */
+    private static List<HudFrame> playerFrames(int player) {
+        List<Waypoint> waypoints = new ArrayList<>();
+        for (int w = 0; w < 4; w++) {
+            waypoints.add(new Waypoint("wp" + w, player * 97 + w * 9, 64, player * -53 - w * 7, WaypointCategory.HOME));
+        }
+
+        List<HudFrame> frames = new ArrayList<>();
+        for (int f = 0; f < FRAMES_PER_PLAYER; f++) {
+            int blockX = player * 97 + f;
+            int blockZ = player * -53 + f / 2;
+            frames.add(new HudFrame(LocalDateTime.now(), captureChunks(blockX, blockZ),
+                    new Vector3d(blockX + 0.5, 64.0, blockZ + 0.5), (player * 11.25f + f * 7f) % 360f,
+                    waypoints, GlobalWaypointLayer.EMPTY));
+        }
+        return frames;
+    }
+
+    /**
+     * Synthetic terrain covering the minimap's reach at the widest zoom.
+     */
+    private static MinimapChunks captureChunks(int blockX, int blockZ) {
+        int reach = (int) Math.ceil(MinimapLayout.FOVEATED.getVisibleRadius(MinimapLayout.MAX_ZOOM) * Math.sqrt(2.0)) + 1;
+        int baseChunkX = Math.floorDiv(blockX - reach, MinimapChunks.CHUNK_SIZE);
+        int baseChunkZ = Math.floorDiv(blockZ - reach, MinimapChunks.CHUNK_SIZE);
+        int span = Math.max(Math.floorDiv(blockX + reach, MinimapChunks.CHUNK_SIZE) - baseChunkX,
+                Math.floorDiv(blockZ + reach, MinimapChunks.CHUNK_SIZE) - baseChunkZ) + 1;
+
+        int[][] tiles = new int[span * span][];
+        for (int t = 0; t < tiles.length; t++) {
+            int[] tile = new int[MinimapChunks.TILE_PIXELS];
+            for (int i = 0; i < tile.length; i++) {
+                tile[i] = ((i + t * 131) * 0x9E3779B1) >>> 8; // Scattered 0xRRGGBB terrain
+            }
+            tiles[t] = tile;
+        }
+        return new MinimapChunks(baseChunkX, baseChunkZ, span, tiles);
+    }
+}